@@ -0,0 +1,40 @@
+package battleship.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+Runs the benchmark suite with the GC profiler turned on so every result also
+reports gc.alloc.rate.norm, the bytes allocated per operation.
+
+The benchmarks are kept out of src so the game does not depend on JMH. To run
+them, compile bench/src together with the game's classes with jmh-core and
+jmh-generator-annprocess on the classpath (the annotation processor generates
+the benchmark harness), then run this class with the same classpath.
+
+An optional argument is a regular expression that selects which benchmarks to
+run, e.g. "PlayerBenchmark.applyAndUndoShot".
+*/
+public class BenchmarkMain
+{
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "battleship\\.bench\\..*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(options).run();
+    }
+}
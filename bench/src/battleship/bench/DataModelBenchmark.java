@@ -0,0 +1,77 @@
+package battleship.bench;
+
+import battleship.data.Board;
+import battleship.data.Cell;
+import battleship.data.Ship;
+import battleship.exceptions.BattleshipException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+Benchmarks for the Board and Ship methods that the players and the GUI call
+while a game is played.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataModelBenchmark
+{
+    /**
+     * A carrier with one cell already hit, so hitting that cell again leaves
+     * the ship in the same state and every invocation does the same work
+     */
+    @State(Scope.Thread)
+    public static class ShipState
+    {
+        public Ship carrier;
+
+        @Setup(Level.Trial)
+        public void setUp() throws BattleshipException
+        {
+            Cell[] cells = new Cell[5];
+            for(int i = 0; i < cells.length; i++)
+            {
+                cells[i] = new Cell(2 + i, 4);
+            }
+            carrier = new Ship(5, true, "Carrier", cells);
+            carrier.hitCell(2, 4);
+        }
+    }
+
+    /**
+     * Copies the shooter's board, including its point values. Player.getBoard
+     * already returns a copy, so it is the only copy made
+     */
+    @Benchmark
+    public Board copyBoard(GameState state)
+    {
+        return state.engine.getCurrentPlayer().getBoard();
+    }
+
+    /**
+     * A shot that hits the ship
+     */
+    @Benchmark
+    public boolean hitCellHit(ShipState state)
+    {
+        return state.carrier.hitCell(2, 4);
+    }
+
+    /**
+     * A shot that misses the ship, which is what most ships see for most shots
+     */
+    @Benchmark
+    public boolean hitCellMiss(ShipState state)
+    {
+        return state.carrier.hitCell(7, 7);
+    }
+}
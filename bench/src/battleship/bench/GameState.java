@@ -0,0 +1,118 @@
+package battleship.bench;
+
+import battleship.data.Player;
+import battleship.engine.GameEngine;
+import battleship.exceptions.InvalidCoordinateException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class sets up a game between two computer players that has been played up
+to a certain point so the benchmarks can measure the hot paths on realistic
+boards instead of empty ones.
+
+Phases:
+early: 10 shots have been fired between both players
+mid: 50 shots have been fired between both players
+late: 70 shots have been fired between both players. Usually several ships are sunk
+*/
+@State(Scope.Thread)
+public class GameState
+{
+    /**how far into the game the position is*/
+    @Param({"early", "mid", "late"})
+    public String phase;
+
+    /**classic or salvo*/
+    @Param({"classic", "salvo"})
+    public String mode;
+
+    /**targeting mode used by both players*/
+    @Param({"heuristic", "density"})
+    public String targeting;
+
+    /**the two players. Reused every time the position is rebuilt*/
+    public Player first;
+    public Player second;
+
+    /**the engine the position was played with. The current player is the one to shoot next*/
+    public GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidCoordinateException
+    {
+        first = new Player("First");
+        second = new Player("Second");
+        int targetingMode = targeting.equals("density") ? Player.TARGETING_DENSITY : Player.TARGETING_HEURISTIC;
+        first.setTargetingMode(targetingMode);
+        second.setTargetingMode(targetingMode);
+        //measure the scoring itself instead of lookups of positions seen in earlier iterations
+        first.setRecommendationCache(null);
+        second.setRecommendationCache(null);
+        first.setUseOpeningBook(false);
+        second.setUseOpeningBook(false);
+        engine = new GameEngine(first, second, getGameMode());
+        build();
+    }
+
+    /**
+     * Plays a new game up to the start of the phase. Games that end before
+     * reaching the phase are thrown away and played again
+     * @throws InvalidCoordinateException thrown if a player fires off the board
+     */
+    public void build() throws InvalidCoordinateException
+    {
+        do
+        {
+            first.reset();
+            second.reset();
+            if(!first.generateRandomShipPlacement() || !second.generateRandomShipPlacement())
+            {
+                throw new IllegalStateException("Fleet could not be placed on the board");
+            }
+            engine.reset(first, second, getGameMode());
+            while(!engine.isGameOver() && getTotalShots() < getPhaseStart())
+            {
+                engine.fireRecommended();
+            }
+        }
+        while(engine.isGameOver());
+    }
+
+    /**
+     * Gets the number of shots fired by both players so far
+     * @return the total shots fired
+     */
+    public int getTotalShots()
+    {
+        return engine.getShotsFired(GameEngine.FIRST_PLAYER) + engine.getShotsFired(GameEngine.SECOND_PLAYER);
+    }
+
+    /**
+     * Gets the number of shots fired by both players at the start of the phase
+     * @return the total shots fired when the phase begins
+     */
+    public int getPhaseStart()
+    {
+        switch(phase)
+        {
+            case "early":
+                return 10;
+            case "mid":
+                return 50;
+            default:
+                return 70;
+        }
+    }
+
+    public int getGameMode()
+    {
+        return mode.equals("salvo") ? GameEngine.MODE_SALVO : GameEngine.MODE_CLASSIC;
+    }
+}
@@ -0,0 +1,125 @@
+package battleship.bench;
+
+import battleship.data.Coord;
+import battleship.data.Player;
+import battleship.exceptions.InvalidCoordinateException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+Benchmarks for the Player methods that run on every shot of a simulated game.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerBenchmark
+{
+    /**number of shots taken in each invocation of the shot benchmark*/
+    private static final int PHASE_LENGTH = 20;
+
+    /**
+     * The shots the current player would take next from the start of the phase.
+     * The targets are chosen once per iteration, so choosing them isn't timed.
+     * Every invocation takes all of them and then undoes them, leaving the
+     * position as it was for the next invocation
+     */
+    @State(Scope.Thread)
+    public static class ShotSequenceState extends GameState
+    {
+        /**the player taking the shots and the player being shot at*/
+        public Player shooter;
+        public Player defender;
+
+        /**indexes (y*width + x) of the cells shot at, in order*/
+        public int[] targets;
+
+        @Setup(Level.Iteration)
+        public void chooseTargets() throws InvalidCoordinateException
+        {
+            build();
+            shooter = engine.getCurrentPlayer();
+            defender = engine.getOpponent();
+            targets = new int[PHASE_LENGTH];
+            for(int i = 0; i < PHASE_LENGTH; i++)
+            {
+                shooter.updateRecommendation();
+                targets[i] = shooter.getRecommendation().getIndex(shooter.getBoardWidth());
+                defender.applyShot(targets[i], shooter);
+            }
+            for(int i = 0; i < PHASE_LENGTH; i++)
+            {
+                defender.undoShot();
+            }
+        }
+    }
+
+    /**
+     * A player whose fleet is placed over and over. Placement does not depend
+     * on the game phase so it gets its own state
+     */
+    @State(Scope.Thread)
+    public static class PlacementState
+    {
+        public Player player;
+
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            player = new Player("Placement");
+        }
+    }
+
+    /**
+     * Chooses the next target on a board that was already scored
+     */
+    @Benchmark
+    public Coord updateRecommendation(GameState state)
+    {
+        Player shooter = state.engine.getCurrentPlayer();
+        shooter.updateRecommendation();
+        return shooter.getRecommendation();
+    }
+
+    /**
+     * Resolves a shot on the defender and updates the shooter's board and what
+     * it knows about the defender's fleet, then undoes it. Shots are taken in
+     * batches so the time of a single shot isn't lost in the benchmark overhead.
+     * Uses applyShot instead of fireAt since only shots made with applyShot can
+     * be undone to get back to the same position
+     */
+    @Benchmark
+    @OperationsPerInvocation(PHASE_LENGTH)
+    public int applyAndUndoShot(ShotSequenceState state) throws InvalidCoordinateException
+    {
+        int results = 0;
+        for(int i = 0; i < PHASE_LENGTH; i++)
+        {
+            results += state.defender.applyShot(state.targets[i], state.shooter);
+        }
+        for(int i = 0; i < PHASE_LENGTH; i++)
+        {
+            state.defender.undoShot();
+        }
+        return results;
+    }
+
+    /**
+     * Places a whole fleet randomly
+     */
+    @Benchmark
+    public Player generateRandomShipPlacement(PlacementState state)
+    {
+        state.player.generateRandomShipPlacement();
+        return state.player;
+    }
+}
@@ -1,45 +1,118 @@
 package battleship.data;
 
 
+import battleship.exceptions.InvalidBoardSizeException;
 import battleship.exceptions.InvalidCoordinateException;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 
 /**
 Programmer: Steven Siddall
  @author Steven Siddall
 
-This class represents a board for a single player. Contains a two dimensional
-array of cells
+This class represents a board for a single player. The state of every cell is
+stored as a set of bitsets (one bit per cell, packed into an array of longs) so
+that copying a board and checking a cell's state are cheap, and so that even
+the largest boards only take a few bits per cell. Cells are only created when a
+caller asks for one
  A board has letters going up and down and numbers going across
+
+Boards are 10x10 by default but can be any width and height from MIN_SIZE to
+MAX_SIZE. Cells are numbered by index, y*width + x.
+
+Every board keeps a 64-bit Zobrist hash of its cell states so that positions can
+be used as keys in hash tables without comparing every cell. Each state of each
+cell has a random key, and the hash is the XOR of the keys of every cell that
+isn't untouched along with a key for the board's size. Changing a cell's state
+XORs out the key of its old state and XORs in the new one, so keeping the hash
+up to date costs almost nothing. Keys are made by mixing the cell index and state
+with the SplitMix64 function, so large boards don't need a table of keys. The
+first cells have their keys in a table since they are used by every board.
+Point values are not part of the hash.
+
+Listeners can be added to a board to be told about every change to a cell's
+state. Copies of a board start without listeners.
+
+A board is also a BoardView, so a player can hand out its own board as a
+read-only view instead of copying it.
 */
 
-public class Board
+public class Board implements BoardView
 {
-    /**2 dimensional array of cells to represent board*/
-    private Cell[][] cells;
+    /**width and height of the standard board*/
+    public static final int DEFAULT_SIZE = 10;
+    /**smallest width or height a board can have*/
+    public static final int MIN_SIZE = 6;
+    /**largest width or height a board can have*/
+    public static final int MAX_SIZE = 1000;
 
-    /**
-     * default constructor. Creates a board of cells 10x10 and gives them coordinates
-     */
-    public Board()
+    /**number of cells that fit in each word of the bitsets*/
+    private static final int WORD_BITS = 64;
+
+    /**number of cells at the start of every board whose hash keys are kept in a table*/
+    private static final int KEY_TABLE_CELLS = 1024;
+
+    /**hash key of each state of the first cells, indexed by index*4 + state.
+    Untouched cells have a key of 0*/
+    private static final long[] KEY_TABLE = new long[KEY_TABLE_CELLS*4];
+
+    static
     {
-        cells = new Cell[10][10];
-        for(int y = 0; y < 10; y++)
+        for(int i = 0; i < KEY_TABLE_CELLS; i++)
         {
-            for(int x = 0; x < 10; x++)
+            for(int state = Cell.MISS; state <= Cell.SUNKEN_SHIP; state++)
             {
-                try
-                {
-                    cells[x][y] = new Cell(x,y);
-                }
-                catch(InvalidCoordinateException e) //should never happen since coord values are hardcoded
-                {
-                    System.out.println("Coordinate error in board default constructor");
-                    System.exit(1);
-                }
+                KEY_TABLE[i*4 + state] = mixKey((long) i*4 + state);
             }
         }
     }
+
+    /**number of columns on the board*/
+    private int width;
+    /**number of rows on the board*/
+    private int height;
+
+    /**bitsets of the cells that have been missed. Bit i of the bitset (bit
+    i % 64 of word i / 64) is set if the cell with index i is a miss*/
+    private long[] miss;
+    /**bitsets of the cells that have been hit but not sunk*/
+    private long[] hit;
+    /**bitsets of the cells that contain a sunken ship. Any cell not in one
+    of the three bitsets is untouched*/
+    private long[] sunk;
+
+    /**point values for each cell indexed the same way as the bitsets. Left null
+    until a value is set so that copies of boards without values are cheap*/
+    private double[] values;
+
+    /**Zobrist hash of the size of the board and the state of every cell*/
+    private long hash;
+
+    /**number of cells that are not untouched*/
+    private int numTouched;
+
+    /**objects told about every change to a cell's state. null if there are none*/
+    private BoardListener[] listeners;
+
+    /**
+     * default constructor. Creates a 10x10 board where every cell is untouched
+     */
+    public Board()
+    {
+        init(DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor that takes the size of the board. Every cell starts untouched
+     * @param width number of columns. Must be from MIN_SIZE to MAX_SIZE inclusive
+     * @param height number of rows. Must be from MIN_SIZE to MAX_SIZE inclusive
+     * @throws InvalidBoardSizeException thrown if the width or height is not supported
+     */
+    public Board(int width, int height) throws InvalidBoardSizeException
+    {
+        checkSize(width, height);
+        init(width, height);
+    }
     
     /**
     copy constructor
@@ -47,29 +120,190 @@ public class Board
     */
     public Board(Board original)
     {
-        cells = new Cell[10][10];
-        for(int y = 0; y < 10; y++)
+        width = original.width;
+        height = original.height;
+        miss = original.miss.clone();
+        hit = original.hit.clone();
+        sunk = original.sunk.clone();
+        hash = original.hash;
+        numTouched = original.numTouched;
+        listeners = null;
+        if(original.values != null)
         {
-            for(int x = 0; x < 10; x++)
+            values = original.values.clone();
+        }
+    }
+
+    /**
+     * Copies the board as it is right now. The copy doesn't change when this
+     * board does and has no listeners
+     * @return a deep copy of this board
+     */
+    @Override
+    public Board snapshot()
+    {
+        return new Board(this);
+    }
+
+    /**
+     * Checks that a width and height are supported
+     * @param width number of columns
+     * @param height number of rows
+     * @throws InvalidBoardSizeException thrown if either is less than MIN_SIZE or more than MAX_SIZE
+     */
+    public static void checkSize(int width, int height) throws InvalidBoardSizeException
+    {
+        if(width < MIN_SIZE || width > MAX_SIZE || height < MIN_SIZE || height > MAX_SIZE)
+        {
+            throw new InvalidBoardSizeException("Invalid Board Size: " + width + "x" + height +
+                                                ". Must be from " + MIN_SIZE + " to " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * Sets every cell back to untouched and clears all point values so the
+     * board can be reused for a new game. Listeners are told about each cell
+     * that goes back to untouched
+     */
+    public void clear()
+    {
+        if(listeners != null)
+        {
+            //untouch each cell on its own so the listeners see every change
+            for(int w = 0; w < miss.length; w++)
             {
-                try
-                {
-                        cells[x][y] = new Cell(original.getCell(x, y));
-                }
-                catch(InvalidCoordinateException e) //should never happen since coord values are hardcoded
+                long touched = miss[w] | hit[w] | sunk[w];
+                while(touched != 0)
                 {
-                        System.out.println("Coordinate error in board default constructor");
-                        System.exit(1);
+                    setCellState(w*WORD_BITS + Long.numberOfTrailingZeros(touched), Cell.UNTOUCHED);
+                    touched &= touched - 1;
                 }
             }
         }
+        Arrays.fill(miss, 0);
+        Arrays.fill(hit, 0);
+        Arrays.fill(sunk, 0);
+        values = null;
+        hash = getEmptyHash(width, height);
+        numTouched = 0;
     }
 
     /**
-     * Returns a deep copy of the cell at the specified coordinates
+     * Gets the Zobrist hash of this board. Boards with the same size and the same
+     * state in every cell always have the same hash, no matter what order the
+     * cells were changed in. Different boards have the same hash so rarely that
+     * the hash can be used as the key for a position
+     * @return the 64-bit hash of the board's size and cell states
+     */
+    public long getZobristHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Gets the number of cells that have been shot at
+     * @return the number of cells that are not untouched
+     */
+    public int getNumTouchedCells()
+    {
+        return numTouched;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the number of cells on the board
+     * @return width*height
+     */
+    public int getNumCells()
+    {
+        return width*height;
+    }
+
+    /**
+     * Checks if an index belongs to a cell on this board
+     * @param index the index to check
+     * @return true if the index is from 0 to width*height - 1 inclusive
+     */
+    public boolean isValidIndex(int index)
+    {
+        return index >= 0 && index < width*height;
+    }
+
+    /**
+     * Checks that an index belongs to a cell on this board
+     * @param index the index to check
+     * @throws InvalidCoordinateException thrown if the index is not on the board
+     */
+    public void checkIndex(int index) throws InvalidCoordinateException
+    {
+        if(!isValidIndex(index))
+        {
+            throw new InvalidCoordinateException("Invalid Coordinate Index: " + index);
+        }
+    }
+
+    /**
+     * Converts coordinates into the index of a cell on this board
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the index of the cell, y*width + x. -1 if the coordinates are out of bounds
+     */
+    public int getIndex(int x, int y)
+    {
+        if(!checkBounds(x,y))
+        {
+            return -1;
+        }
+        return index(x,y);
+    }
+
+    /**
+     * Gets the x coordinate of a cell index. The index must already be on the board
+     * @param index index of the cell
+     * @return the x coordinate of the cell
+     */
+    public int getX(int index)
+    {
+        return index % width;
+    }
+
+    /**
+     * Gets the y coordinate of a cell index. The index must already be on the board
+     * @param index index of the cell
+     * @return the y coordinate of the cell
+     */
+    public int getY(int index)
+    {
+        return index / width;
+    }
+
+    /**
+     * Gets the shared coordinates of a cell index
+     * @param index index of the cell
+     * @return the shared coord for the cell
+     * @throws InvalidCoordinateException thrown if the index is not on the board
+     */
+    public Coord getCoord(int index) throws InvalidCoordinateException
+    {
+        checkIndex(index);
+        return Coord.valueOf(getX(index), getY(index));
+    }
+
+    /**
+     * Returns a deep copy of the cell at the specified coordinates. The cell is
+     * built from the board's bitsets so changing it does not change the board
      * @param x x value for the desired cell
      * @param y y value for the desired cell
-     * @return a deep copy of the requested cell
+     * @return a deep copy of the requested cell. null if the coordinates are out of bounds
      */
     public Cell getCell(int x, int y) throws InvalidCoordinateException
     {
@@ -77,7 +311,110 @@ public class Board
         {
             return null;
         }
-        return cells[x][y];
+        Cell cell = new Cell(x,y);
+        cell.setState(getState(index(x,y)));
+        cell.setValue(getValue(index(x,y)));
+        return cell;
+    }
+
+    /**
+     * Gets the state of the cell at the specified coordinates without building a cell
+     * @param x x coordinate of the desired cell
+     * @param y y coordinate of the desired cell
+     * @return the state of the cell from 0 to 3 inclusive. -1 if the coordinates are out of bounds
+     */
+    public int getCellState(int x, int y)
+    {
+        if(!checkBounds(x,y))
+        {
+            return -1;
+        }
+        return getState(index(x,y));
+    }
+
+    /**
+     * Gets the state of the cell at the specified index without building a cell
+     * @param index index of the desired cell, y*width + x
+     * @return the state of the cell from 0 to 3 inclusive. -1 if the index is out of bounds
+     */
+    public int getCellState(int index)
+    {
+        if(!isValidIndex(index))
+        {
+            return -1;
+        }
+        return getState(index);
+    }
+
+    /**
+     * Gets the point value of the cell at the specified coordinates without building a cell
+     * @param x x coordinate of the desired cell
+     * @param y y coordinate of the desired cell
+     * @return the point value of the cell. 0 if the coordinates are out of bounds
+     */
+    public double getCellValue(int x, int y)
+    {
+        if(!checkBounds(x,y))
+        {
+            return 0;
+        }
+        return getValue(index(x,y));
+    }
+
+    /**
+     * Gets the point value of the cell at the specified index without building a cell
+     * @param index index of the desired cell, y*width + x
+     * @return the point value of the cell. 0 if the index is out of bounds
+     */
+    public double getCellValue(int index)
+    {
+        if(!isValidIndex(index))
+        {
+            return 0;
+        }
+        return getValue(index);
+    }
+
+    /**
+     * Gets the number of words in each bitset
+     * @return the number of longs needed to hold one bit per cell
+     */
+    int getNumWords()
+    {
+        return miss.length;
+    }
+
+    /**
+     * Gets one word of the bitset of cells in a given state. Bit b of word w is
+     * set if the cell with index w*64 + b is in that state
+     * @param state the state to get the bitset for. Must be from 0 to 3 inclusive
+     * @param word which word of the bitset to get. 0 if past the end
+     * @return the cells in the given state from index word*64 to word*64 + 63
+     */
+    long getWord(int state, int word)
+    {
+        if(word < 0 || word >= miss.length)
+        {
+            return 0;
+        }
+        switch(state)
+        {
+        case Cell.MISS:
+            return miss[word];
+        case Cell.HIT:
+            return hit[word];
+        case Cell.SUNKEN_SHIP:
+            return sunk[word];
+        default:
+            long untouched = ~(miss[word] | hit[word] | sunk[word]);
+            //cells past the end of the board are never untouched
+            int cellsInWord = width*height - word*WORD_BITS;
+            if(cellsInWord < WORD_BITS)
+            {
+                untouched &= (1L << cellsInWord) - 1;
+            }
+            return untouched;
+        }
     }
 
     /**
@@ -93,7 +430,30 @@ public class Board
         {
             return false;
         }
-        cells[x][y].setValue(value);
+        return setCellValue(index(x,y), value);
+    }
+
+    /**
+     * Sets the value of the cell at the specified index. Can be any value
+     * @param index index of the desired cell, y*width + x
+     * @param value new point value for this cell
+     * @return true if the index was within bounds and the value was set
+     */
+    public boolean setCellValue(int index, double value)
+    {
+        if(!isValidIndex(index))
+        {
+            return false;
+        }
+        if(values == null)
+        {
+            if(value == 0)
+            {
+                return true;
+            }
+            values = new double[width*height];
+        }
+        values[index] = value;
         return true;
     }
 
@@ -110,7 +470,124 @@ public class Board
         {
             return false;
         }
-        return cells[x][y].setState(state);
+        return setCellState(index(x,y), state);
+    }
+
+    /**
+     * Sets the state of the cell at the specified index to a state from 0 to 3 inclusive
+     * @param i index of the target cell, y*width + x
+     * @param state new state of the cell. Must be from 0 to 3 inclusive
+     * @return true if the index and state were valid and the state was successfully set
+     */
+    public boolean setCellState(int i, int state)
+    {
+        return setCellState(i, state, null);
+    }
+
+    /**
+     * Sets the state of the cell at the specified index and tells the listeners
+     * which ship was sunk if the change was caused by a sink
+     * @param i index of the target cell, y*width + x
+     * @param state new state of the cell. Must be from 0 to 3 inclusive
+     * @param sunkShip the ship that was sunk. null if the change wasn't caused by a sink
+     * @return true if the index and state were valid and the state was successfully set
+     */
+    boolean setCellState(int i, int state, Ship sunkShip)
+    {
+        if(!isValidIndex(i) || state < Cell.UNTOUCHED || state > Cell.SUNKEN_SHIP)
+        {
+            return false;
+        }
+
+        int oldState = getState(i);
+        hash ^= getKey(i, oldState) ^ getKey(i, state);
+        if(oldState == Cell.UNTOUCHED && state != Cell.UNTOUCHED)
+        {
+            numTouched++;
+        }
+        else if(oldState != Cell.UNTOUCHED && state == Cell.UNTOUCHED)
+        {
+            numTouched--;
+        }
+
+        int word = i / WORD_BITS;
+        long bit = 1L << i;
+        miss[word] &= ~bit;
+        hit[word] &= ~bit;
+        sunk[word] &= ~bit;
+        switch(state)
+        {
+        case Cell.MISS:
+            miss[word] |= bit;
+            break;
+        case Cell.HIT:
+            hit[word] |= bit;
+            break;
+        case Cell.SUNKEN_SHIP:
+            sunk[word] |= bit;
+            break;
+        }
+
+        if(listeners != null && oldState != state)
+        {
+            fireCellChanged(i, oldState, state, sunkShip);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a listener that is told about every change to a cell's state
+     * @param listener the listener to add
+     * @return true if the listener was not null and was added
+     */
+    public boolean addBoardListener(BoardListener listener)
+    {
+        if(listener == null)
+        {
+            return false;
+        }
+        if(listeners == null)
+        {
+            listeners = new BoardListener[] {listener};
+        }
+        else
+        {
+            listeners = Arrays.copyOf(listeners, listeners.length + 1);
+            listeners[listeners.length - 1] = listener;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a listener that was added to this board
+     * @param listener the listener to remove
+     * @return true if the listener was found and removed
+     */
+    public boolean removeBoardListener(BoardListener listener)
+    {
+        if(listeners == null)
+        {
+            return false;
+        }
+        for(int i = 0; i < listeners.length; i++)
+        {
+            if(listeners[i] == listener)
+            {
+                if(listeners.length == 1)
+                {
+                    listeners = null;
+                }
+                else
+                {
+                    BoardListener[] remaining = new BoardListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, remaining, 0, i);
+                    System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                    listeners = remaining;
+                }
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -121,21 +598,20 @@ public class Board
     {
         DecimalFormat df = new DecimalFormat("00.00");
         String returnStr = "";
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < width; i++)
         {
             returnStr += "\t";
             returnStr += (i+1);
         }
         
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
             returnStr += "\n\n\n";
-            char rowChar = (char) (y+65);
-            returnStr += rowChar;
-            for(int x = 0; x < 10; x++)
+            returnStr += Coord.getRowLabel(y);
+            for(int x = 0; x < width; x++)
             {
                 returnStr += "\t";   
-                returnStr += df.format(cells[x][y].getValue());
+                returnStr += df.format(getValue(index(x,y)));
             }
         }
         return returnStr;
@@ -148,22 +624,21 @@ public class Board
     public String toStringIntCoords()
     {
         String returnStr = "";
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < width; i++)
         {
             returnStr += "\t";
             returnStr += (i+1);
         }
         
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
             returnStr += "\n\n\n";
-            char rowChar = (char) (y+65);
-            returnStr += rowChar;
-            for(int x = 0; x < 10; x++)
+            returnStr += Coord.getRowLabel(y);
+            for(int x = 0; x < width; x++)
             {
                 returnStr += "\t";
-                returnStr += cells[x][y].getXCoord();
-                returnStr += "," + cells[x][y].getYCoord();
+                returnStr += x;
+                returnStr += "," + y;
             }
         }
         return returnStr;
@@ -176,21 +651,21 @@ public class Board
     public String toStringBShipCoords()
     {
         String returnStr = "";
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < width; i++)
         {
             returnStr += "\t";
             returnStr += (i+1);
         }
         
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
             returnStr += "\n\n\n\n";
-            char rowChar = (char) (y+65);
-            returnStr += rowChar;
-            for(int x = 0; x < 10; x++)
+            returnStr += Coord.getRowLabel(y);
+            for(int x = 0; x < width; x++)
             {
                 returnStr += "\t";
-                returnStr += cells[x][y].getBShipCoords();
+                returnStr += Coord.getRowLabel(y);
+                returnStr += (x+1);
             }
         }
         return returnStr;
@@ -203,22 +678,21 @@ public class Board
     public String toStringStates()
     {
         String returnStr = "";
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < width; i++)
         {
             returnStr += "\t";
             returnStr += (i+1);
         }
         
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
             returnStr += "\n\n\n";
-            char rowChar = (char) (y+65);
-            returnStr += rowChar;
-            for(int x = 0; x < 10; x++)
+            returnStr += Coord.getRowLabel(y);
+            for(int x = 0; x < width; x++)
             {
                 String addStr = "";
                 returnStr += "\t";
-                switch(cells[x][y].getState())
+                switch(getState(index(x,y)))
                 {
                     case Cell.HIT:
                         addStr = "X";
@@ -246,20 +720,27 @@ public class Board
     public String toString()
     {
         String returnStr = "";
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < width; i++)
         {
             returnStr += "\t";
             returnStr += (i+1);
         }
         
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
             returnStr += "\n\n\n\n\n\n";
-            char rowChar = (char) (y+65);
-            returnStr += rowChar;
-            for(int x = 0; x < 10; x++)
+            returnStr += Coord.getRowLabel(y);
+            for(int x = 0; x < width; x++)
             {
-                returnStr += cells[x][y].toString();
+                try
+                {
+                    returnStr += getCell(x,y).toString();
+                }
+                catch(InvalidCoordinateException e) //should never happen since coord values are hardcoded
+                {
+                    System.out.println("Coordinate error in board toString");
+                    System.exit(1);
+                }
                 returnStr += "\n";
             }
         }
@@ -273,31 +754,163 @@ public class Board
      */
     public boolean equals(Board otherBoard) throws InvalidCoordinateException
     {
-        for(int y = 0; y < 10; y++)
+        if(hash != otherBoard.hash || width != otherBoard.width || height != otherBoard.height ||
+           !Arrays.equals(miss, otherBoard.miss) || !Arrays.equals(hit, otherBoard.hit) ||
+           !Arrays.equals(sunk, otherBoard.sunk))
         {
-            for(int x = 0; x < 10; x++)
+            return false;
+        }
+        for(int i = 0; i < width*height; i++)
+        {
+            if(getValue(i) != otherBoard.getValue(i))
             {
-                if(!cells[x][y].equals(otherBoard.getCell(x,y)))
-                {
-                        return false;
-                }
+                return false;
             }
         }
         return true;
     }
 
     /**
-     * Helper method to check if the coordinates are from 0 to 9 inclusive
+     * Helper method to tell every listener about a change to a cell
+     * @param i index of the cell that changed
+     * @param oldState state of the cell before the change
+     * @param newState state of the cell after the change
+     * @param sunkShip the ship that was sunk. null if the change wasn't caused by a sink
+     */
+    private void fireCellChanged(int i, int oldState, int newState, Ship sunkShip)
+    {
+        BoardChangeEvent event = new BoardChangeEvent(this, i, oldState, newState, sunkShip);
+        for(BoardListener listener : listeners)
+        {
+            listener.cellChanged(event);
+        }
+    }
+
+    /**
+     * Helper method to set up an empty board of a given size. The size must already be checked
+     * @param width number of columns
+     * @param height number of rows
+     */
+    private void init(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        int words = (width*height + WORD_BITS - 1) / WORD_BITS;
+        miss = new long[words];
+        hit = new long[words];
+        sunk = new long[words];
+        values = null;
+        hash = getEmptyHash(width, height);
+        numTouched = 0;
+    }
+
+    /**
+     * Gets the hash key for a state of a cell. Also used by BoardBranch to keep
+     * its hash the same as a board with the same cells
+     * @param i index of the cell
+     * @param state state of the cell from 0 to 3 inclusive
+     * @return the key. 0 for untouched cells
+     */
+    static long getKey(int i, int state)
+    {
+        if(state == Cell.UNTOUCHED)
+        {
+            return 0;
+        }
+        if(i < KEY_TABLE_CELLS)
+        {
+            return KEY_TABLE[i*4 + state];
+        }
+        return mixKey((long) i*4 + state);
+    }
+
+    /**
+     * Helper method to get the hash of an empty board, which depends only on its size
+     * @param width number of columns
+     * @param height number of rows
+     * @return the hash of a board of that size with every cell untouched
+     */
+    private static long getEmptyHash(int width, int height)
+    {
+        //negative seeds never collide with the cell keys
+        return mixKey(-1L - ((long) width*(MAX_SIZE + 1) + height));
+    }
+
+    /**
+     * Helper method to turn a number into a random looking 64-bit key with the
+     * SplitMix64 function
+     * @param seed the number to mix
+     * @return the mixed key
+     */
+    private static long mixKey(long seed)
+    {
+        long z = (seed + 1)*0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Helper method to check if the coordinates are on the board
      * @param x x coordinate to check
      * @param y y coordinate to check
      * @return true if they are in bounds
      */
     private boolean checkBounds(int x, int y)
     {
-        if(x < 0 || x > 9 || y < 0 || y > 9)
+        if(x < 0 || x >= width || y < 0 || y >= height)
         {
             return false;
         }
         return true;
     }
+
+    /**
+     * Helper method to convert coordinates into the bit index used by the bitsets.
+     * Coordinates must already be in bounds
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the index of the cell from 0 to width*height - 1 inclusive
+     */
+    private int index(int x, int y)
+    {
+        return y*width + x;
+    }
+
+    /**
+     * Helper method to read the state of a cell out of the bitsets
+     * @param i index of the cell
+     * @return the state of the cell from 0 to 3 inclusive
+     */
+    private int getState(int i)
+    {
+        int word = i / WORD_BITS;
+        if(((miss[word] >>> i) & 1L) != 0)
+        {
+            return Cell.MISS;
+        }
+        else if(((hit[word] >>> i) & 1L) != 0)
+        {
+            return Cell.HIT;
+        }
+        else if(((sunk[word] >>> i) & 1L) != 0)
+        {
+            return Cell.SUNKEN_SHIP;
+        }
+        return Cell.UNTOUCHED;
+    }
+
+    /**
+     * Helper method to read the point value of a cell
+     * @param i index of the cell
+     * @return the point value of the cell. 0 if no values have been set
+     */
+    private double getValue(int i)
+    {
+        if(values == null)
+        {
+            return 0;
+        }
+        return values[i];
+    }
 }
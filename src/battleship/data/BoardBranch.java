@@ -0,0 +1,344 @@
+package battleship.data;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class is a board that can't be changed, made for searches that try out
+shots without playing them. Instead of changing a cell, withCellState returns a
+new branch with that one change and leaves this one alone. A branch only stores
+the word of the bitsets that its change is in and points to the branch it came
+from for every other word, so making a branch takes constant time and memory
+no matter how big the board is. Any number of branches can share the same
+parent, and undoing a change is just going back to the parent.
+
+Reading a cell looks back through the branches for the last one that changed its
+word, and reads the root board if none did. Searches only go a few shots deep,
+so this is quicker than copying the whole board for every branch. Use snapshot
+to get an ordinary Board with every change applied, for example to score it.
+
+The root is a copy of the board it was made from, so the original board can
+keep changing. Branches have the same Zobrist hash as a Board with the same
+cells, so they can be looked up in the same tables. Point values come from the
+root and are never changed by branches.
+*/
+public final class BoardBranch implements BoardView
+{
+    /**number of cells that fit in each word of the bitsets*/
+    private static final int WORD_BITS = 64;
+
+    /**the board every branch in the tree starts from. Never changed*/
+    private final Board root;
+
+    /**the branch this one was made from. null for the root branch*/
+    private final BoardBranch parent;
+
+    /**number of changes between the root and this branch*/
+    private final int depth;
+
+    /**index of the word this branch changed. -1 for the root branch*/
+    private final int word;
+
+    /**the changed word of each bitset*/
+    private final long miss;
+    private final long hit;
+    private final long sunk;
+
+    /**Zobrist hash of this branch's cells*/
+    private final long hash;
+
+    /**number of cells that are not untouched*/
+    private final int numTouched;
+
+    /**
+     * Constructor for the root branch
+     * @param root copy of the board to start from
+     */
+    private BoardBranch(Board root)
+    {
+        this.root = root;
+        parent = null;
+        depth = 0;
+        word = -1;
+        miss = 0;
+        hit = 0;
+        sunk = 0;
+        hash = root.getZobristHash();
+        numTouched = root.getNumTouchedCells();
+    }
+
+    /**
+     * Constructor for a branch with one changed word
+     * @param parent the branch this one is made from
+     * @param word index of the changed word
+     * @param miss new word of the miss bitset
+     * @param hit new word of the hit bitset
+     * @param sunk new word of the sunk bitset
+     * @param hash Zobrist hash after the change
+     * @param numTouched number of touched cells after the change
+     */
+    private BoardBranch(BoardBranch parent, int word, long miss, long hit, long sunk, long hash, int numTouched)
+    {
+        root = parent.root;
+        this.parent = parent;
+        depth = parent.depth + 1;
+        this.word = word;
+        this.miss = miss;
+        this.hit = hit;
+        this.sunk = sunk;
+        this.hash = hash;
+        this.numTouched = numTouched;
+    }
+
+    /**
+     * Makes the root of a new tree of branches from a board as it is right now
+     * @param board the board to start from. Can keep changing afterwards
+     * @return the root branch
+     */
+    public static BoardBranch of(BoardView board)
+    {
+        return new BoardBranch(board.snapshot());
+    }
+
+    /**
+     * Makes a branch with the state of one cell changed. This branch is left as it is
+     * @param index index of the cell to change, y*width + x
+     * @param state new state of the cell. Must be from 0 to 3 inclusive
+     * @return the new branch. This branch if the cell already has that state.
+     * null if the index or state is not valid
+     */
+    public BoardBranch withCellState(int index, int state)
+    {
+        if(!isValidIndex(index) || state < Cell.UNTOUCHED || state > Cell.SUNKEN_SHIP)
+        {
+            return null;
+        }
+        int oldState = getCellState(index);
+        if(oldState == state)
+        {
+            return this;
+        }
+
+        int w = index / WORD_BITS;
+        long bit = 1L << index;
+        long newMiss = getWord(Cell.MISS, w) & ~bit;
+        long newHit = getWord(Cell.HIT, w) & ~bit;
+        long newSunk = getWord(Cell.SUNKEN_SHIP, w) & ~bit;
+        switch(state)
+        {
+        case Cell.MISS:
+            newMiss |= bit;
+            break;
+        case Cell.HIT:
+            newHit |= bit;
+            break;
+        case Cell.SUNKEN_SHIP:
+            newSunk |= bit;
+            break;
+        }
+
+        int newTouched = numTouched;
+        if(oldState == Cell.UNTOUCHED)
+        {
+            newTouched++;
+        }
+        else if(state == Cell.UNTOUCHED)
+        {
+            newTouched--;
+        }
+        long newHash = hash ^ Board.getKey(index, oldState) ^ Board.getKey(index, state);
+        return new BoardBranch(this, w, newMiss, newHit, newSunk, newHash, newTouched);
+    }
+
+    /**
+     * Makes a branch with the state of one cell changed
+     * @param x x coordinate of the cell to change
+     * @param y y coordinate of the cell to change
+     * @param state new state of the cell. Must be from 0 to 3 inclusive
+     * @return the new branch. This branch if the cell already has that state.
+     * null if the coordinates or state are not valid
+     */
+    public BoardBranch withCellState(int x, int y, int state)
+    {
+        int index = root.getIndex(x, y);
+        if(index < 0)
+        {
+            return null;
+        }
+        return withCellState(index, state);
+    }
+
+    /**
+     * Gets the branch this one was made from, which undoes the last change
+     * @return the parent branch. null for the root branch
+     */
+    public BoardBranch getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Gets the number of changes made since the root branch
+     * @return the depth of this branch
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return root.getWidth();
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return root.getHeight();
+    }
+
+    @Override
+    public int getNumCells()
+    {
+        return root.getNumCells();
+    }
+
+    @Override
+    public boolean isValidIndex(int index)
+    {
+        return root.isValidIndex(index);
+    }
+
+    @Override
+    public int getCellState(int x, int y)
+    {
+        int index = root.getIndex(x, y);
+        if(index < 0)
+        {
+            return -1;
+        }
+        return getCellState(index);
+    }
+
+    @Override
+    public int getCellState(int index)
+    {
+        if(!isValidIndex(index))
+        {
+            return -1;
+        }
+        int w = index / WORD_BITS;
+        long bit = 1L << index;
+        if((getWord(Cell.MISS, w) & bit) != 0)
+        {
+            return Cell.MISS;
+        }
+        else if((getWord(Cell.HIT, w) & bit) != 0)
+        {
+            return Cell.HIT;
+        }
+        else if((getWord(Cell.SUNKEN_SHIP, w) & bit) != 0)
+        {
+            return Cell.SUNKEN_SHIP;
+        }
+        return Cell.UNTOUCHED;
+    }
+
+    @Override
+    public double getCellValue(int x, int y)
+    {
+        return root.getCellValue(x, y);
+    }
+
+    @Override
+    public double getCellValue(int index)
+    {
+        return root.getCellValue(index);
+    }
+
+    @Override
+    public int getNumTouchedCells()
+    {
+        return numTouched;
+    }
+
+    @Override
+    public long getZobristHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Makes an ordinary board with every change from the root to this branch applied
+     * @return a new board with the same cells as this branch
+     */
+    @Override
+    public Board snapshot()
+    {
+        Board board = root.snapshot();
+        for(int w = 0; w < root.getNumWords(); w++)
+        {
+            BoardBranch changed = findWord(w);
+            if(changed == null)
+            {
+                continue;
+            }
+            //cells touched on either the root or the branch might have changed
+            long touched = changed.miss | changed.hit | changed.sunk | root.getWord(Cell.MISS, w) |
+                           root.getWord(Cell.HIT, w) | root.getWord(Cell.SUNKEN_SHIP, w);
+            while(touched != 0)
+            {
+                int i = w*WORD_BITS + Long.numberOfTrailingZeros(touched);
+                touched &= touched - 1;
+                board.setCellState(i, getCellState(i));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets one word of the bitset of cells in a given state
+     * @param state the state to get the bitset for. Must be from 0 to 3 inclusive
+     * @param w which word of the bitset to get
+     * @return the cells in the given state from index w*64 to w*64 + 63
+     */
+    long getWord(int state, int w)
+    {
+        BoardBranch changed = findWord(w);
+        if(changed == null)
+        {
+            return root.getWord(state, w);
+        }
+        switch(state)
+        {
+        case Cell.MISS:
+            return changed.miss;
+        case Cell.HIT:
+            return changed.hit;
+        case Cell.SUNKEN_SHIP:
+            return changed.sunk;
+        default:
+            long onBoard = root.getWord(Cell.UNTOUCHED, w) | root.getWord(Cell.MISS, w) |
+                           root.getWord(Cell.HIT, w) | root.getWord(Cell.SUNKEN_SHIP, w);
+            return onBoard & ~(changed.miss | changed.hit | changed.sunk);
+        }
+    }
+
+    /**
+     * Helper method to find the newest branch that changed a word
+     * @param w index of the word
+     * @return the branch. null if no branch since the root changed the word
+     */
+    private BoardBranch findWord(int w)
+    {
+        for(BoardBranch branch = this; branch.parent != null; branch = branch.parent)
+        {
+            if(branch.word == w)
+            {
+                return branch;
+            }
+        }
+        return null;
+    }
+}
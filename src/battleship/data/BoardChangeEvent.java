@@ -0,0 +1,85 @@
+package battleship.data;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class describes a change to a single cell of a board. It is sent to every
+BoardListener on the board after the cell's state changes. Events are only made
+when a board has listeners, so boards used for searching never pay for them.
+
+When a shot sinks a ship, every cell of the ship gets its own event and each of
+them includes the ship that was sunk.
+*/
+public final class BoardChangeEvent
+{
+    private final Board board;
+    private final int index;
+    private final int oldState;
+    private final int newState;
+    private final Ship sunkShip;
+
+    /**
+     * Full constructor
+     * @param board the board that changed
+     * @param index index of the cell that changed, y*width + x
+     * @param oldState state of the cell before the change
+     * @param newState state of the cell after the change
+     * @param sunkShip the ship that was sunk if the change was caused by a sink. Otherwise null
+     */
+    BoardChangeEvent(Board board, int index, int oldState, int newState, Ship sunkShip)
+    {
+        this.board = board;
+        this.index = index;
+        this.oldState = oldState;
+        this.newState = newState;
+        this.sunkShip = sunkShip;
+    }
+
+    /**
+     * Gets the board that changed
+     * @return a live, read-only view of the board
+     */
+    public BoardView getBoard()
+    {
+        return board;
+    }
+
+    /**
+     * Gets the index of the cell that changed
+     * @return the index of the cell, y*width + x
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public int getX()
+    {
+        return board.getX(index);
+    }
+
+    public int getY()
+    {
+        return board.getY(index);
+    }
+
+    public int getOldState()
+    {
+        return oldState;
+    }
+
+    public int getNewState()
+    {
+        return newState;
+    }
+
+    /**
+     * Gets the ship whose sinking caused the change
+     * @return a live, read-only view of the sunk ship. null if the change wasn't caused by a sink
+     */
+    public ShipView getSunkShip()
+    {
+        return sunkShip;
+    }
+}
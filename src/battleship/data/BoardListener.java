@@ -0,0 +1,19 @@
+package battleship.data;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This interface is for objects that want to know when the cells of a board
+change, such as a view of the board that only redraws the cells that changed.
+Listeners are called on the thread that changed the board, right after the
+change, so they should be quick and must not change the board themselves.
+*/
+public interface BoardListener
+{
+    /**
+     * Called after the state of a cell changes
+     * @param event what changed
+     */
+    void cellChanged(BoardChangeEvent event);
+}
@@ -0,0 +1,91 @@
+package battleship.data;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This interface is a read-only view of a board. It gives the state and point
+value of every cell without building Cells or copying the board, so code that
+looks at a board every turn doesn't make any garbage. A view shows the board
+as it is right now and keeps changing along with it, so it is live rather than
+immutable. Callers that need a board that won't change should take a snapshot.
+
+A view handed out by a player is the player's own board. It must never be cast
+back to a Board, since changing it would change the game.
+*/
+public interface BoardView
+{
+    /**
+     * Gets the number of columns on the board
+     * @return the width of the board
+     */
+    int getWidth();
+
+    /**
+     * Gets the number of rows on the board
+     * @return the height of the board
+     */
+    int getHeight();
+
+    /**
+     * Gets the number of cells on the board
+     * @return width*height
+     */
+    int getNumCells();
+
+    /**
+     * Checks if an index belongs to a cell on the board
+     * @param index the index to check
+     * @return true if the index is from 0 to width*height - 1 inclusive
+     */
+    boolean isValidIndex(int index);
+
+    /**
+     * Gets the state of the cell at the specified coordinates
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the state of the cell from 0 to 3 inclusive. -1 if the coordinates are out of bounds
+     */
+    int getCellState(int x, int y);
+
+    /**
+     * Gets the state of the cell at the specified index
+     * @param index index of the cell, y*width + x
+     * @return the state of the cell from 0 to 3 inclusive. -1 if the index is out of bounds
+     */
+    int getCellState(int index);
+
+    /**
+     * Gets the point value of the cell at the specified coordinates
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the point value of the cell. 0 if the coordinates are out of bounds
+     */
+    double getCellValue(int x, int y);
+
+    /**
+     * Gets the point value of the cell at the specified index
+     * @param index index of the cell, y*width + x
+     * @return the point value of the cell. 0 if the index is out of bounds
+     */
+    double getCellValue(int index);
+
+    /**
+     * Gets the number of cells that have been shot at
+     * @return the number of cells that are not untouched
+     */
+    int getNumTouchedCells();
+
+    /**
+     * Gets the Zobrist hash of the board's size and cell states
+     * @return the 64-bit hash of the board
+     */
+    long getZobristHash();
+
+    /**
+     * Copies the board as it is right now. The copy doesn't change when the
+     * board does and has no listeners
+     * @return a deep copy of the board
+     */
+    Board snapshot();
+}
@@ -38,19 +38,19 @@ public class Cell
      */
     public Cell() throws InvalidCoordinateException
     {
-        coords = new Coord(0,0);
+        coords = Coord.ORIGIN;
         state = UNTOUCHED;
         value = 0;
     }
 
     /**
      * Full constructor which takes the x and y coordinates
-     * @param x x-coordinate of new cell. Must be from 0 to 9 inclusive
-     * @param y y-coordinate of new cell. Mist be from 0 to 9 inclusive
+     * @param x x-coordinate of new cell. Must be from 0 to Board.MAX_SIZE - 1 inclusive
+     * @param y y-coordinate of new cell. Mist be from 0 to Board.MAX_SIZE - 1 inclusive
      */
     public Cell(int x, int y) throws InvalidCoordinateException
     {
-        coords = new Coord(x,y);
+        coords = Coord.valueOf(x, y);
         state = UNTOUCHED;
         value = 0;
     }
@@ -63,29 +63,14 @@ public class Cell
     {
         if(otherCell == null)
         {
-            try
-            {
-                coords = new Coord(0,0);
-            }
-            catch (InvalidCoordinateException e) //should never happen since coords are hardcoded
-            {
-                System.out.println("Coordinate error in Cell copy constructor.");
-                System.exit(1);
-            }
+            coords = Coord.ORIGIN;
             state = UNTOUCHED;
             value = 0;
         }
         else
         {
-            try
-            {
-                coords = new Coord(otherCell.getXCoord(),otherCell.getYCoord());
-            }
-            catch (InvalidCoordinateException e) ////should never happen since other cell has good coords
-            {
-                System.out.println("Coordinate error in Cell copy constructor.");
-                System.exit(1);
-            }
+            //coords are shared and can't change so there is no need to copy them
+            coords = otherCell.coords;
             state = otherCell.getState();
             value = otherCell.getValue();
         }
@@ -128,12 +113,12 @@ public class Cell
     }
 
     /**
-     * Gets the coordinates of the cell in the from of an int array
-     * @return an int[] with index 0 being the x coordinate and index 1 being the y coordinate
+     * Gets the coordinates of the cell
+     * @return the shared coord for this cell's location
      */
     public Coord getCoords()
     {
-        return new Coord(coords);
+        return coords;
     }
 
     /**
@@ -147,34 +132,33 @@ public class Cell
 
     /**
      * Sets the x coordinate of the cell
-     * @param x the new x coordinate of the cell. Must be from 0 to 9 inclusive
+     * @param x the new x coordinate of the cell. Must be from 0 to Board.MAX_SIZE - 1 inclusive
      * @return true if the coordinate was successfully set
      */
     public void setXCoord(int x) throws InvalidCoordinateException
     {
-        coords.setX(x);
+        coords = Coord.valueOf(x, coords.getY());
     }
 
     /**
      * Sets the y coordinate of the cell
-     * @param y the new y coordinate of the cell. Must be 0 to 9 inclusive
+     * @param y the new y coordinate of the cell. Must be 0 to Board.MAX_SIZE - 1 inclusive
      * @return true if the coordinate was successfully set
      */
     public void setYCoord(int y) throws InvalidCoordinateException
     {
-        coords.setY(y);
+        coords = Coord.valueOf(coords.getX(), y);
     }
 
     /**
      * Sets both x and y coordinates
-     * @param x the new x coordinate. Must be from 0 to 9 inclusive
-     * @param y the new y coordinate. Must be from 0 to 9 inclusive
+     * @param x the new x coordinate. Must be from 0 to Board.MAX_SIZE - 1 inclusive
+     * @param y the new y coordinate. Must be from 0 to Board.MAX_SIZE - 1 inclusive
      * @return true if both were set successfully
      */
     public void setCoords(int x, int y) throws InvalidCoordinateException
     {
-        coords.setX(x);
-        coords.setY(y);
+        coords = Coord.valueOf(x, y);
     }
 
     /**
@@ -1,6 +1,7 @@
 package battleship.data;
 
 import battleship.exceptions.InvalidCoordinateException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 /**
@@ -8,13 +9,50 @@ Programmer: Steven Siddall
  @author Steven Siddall
 
 Class representing a set of x and y coordinates
+
+Every coordinate on the board has one shared instance that can be gotten with
+valueOf instead of creating a new Coord. The shared instances can't be changed,
+so they can be handed out and stored anywhere without being copied. The
+instances for the standard 10x10 board are made up front. Coordinates on larger
+boards are made a row at a time the first time a coordinate in that row is used.
+
+Coordinates can be anywhere on the largest board, from 0 to Board.MAX_SIZE - 1.
+Whether they are on a particular board is checked by that board.
+
+A coordinate can also be written as a single int index, y*width + x, where
+width is the width of the board it is on. Board, Ship, Player and FireResult
+accept indexes alongside Coords so that shots can be stored in int arrays and
+cells looked up directly in arrays.
 */
 public class Coord
 {
+    /**width and height of the standard board covered by the shared instances made up front*/
+    private static final int SIZE = 10;
+
+    /**the shared instance for each coordinate on the standard board, indexed by y*SIZE + x*/
+    private static final Coord[] CACHE = new Coord[SIZE*SIZE];
+
+    /**rows of shared instances for larger boards, indexed by y then x. Each row
+    is made the first time it is needed*/
+    private static final AtomicReferenceArray<Coord[]> ROWS = new AtomicReferenceArray<>(Board.MAX_SIZE);
+
+    static
+    {
+        for(int i = 0; i < CACHE.length; i++)
+        {
+            CACHE[i] = new Coord(i % SIZE, i / SIZE, true);
+        }
+    }
+
+    /**the shared instance for (0,0)*/
+    public static final Coord ORIGIN = CACHE[0];
+
     /**X value of coordinates*/
     private int xValue;
     /**Y value of coordinates*/
     private int yValue;
+    /**true if this is one of the shared instances, which can't be changed*/
+    private final boolean shared;
 
     /**
      * Full constructor that takes x and y values
@@ -23,8 +61,23 @@ public class Coord
      */
     public Coord(int x, int y) throws InvalidCoordinateException
     {
-        setX(x);
-        setY(y);
+        shared = false;
+        checkBounds(x, y);
+        xValue = x;
+        yValue = y;
+    }
+
+    /**
+     * Constructor for the shared instances
+     * @param x x location
+     * @param y y location
+     * @param shared true if this instance will be shared
+     */
+    private Coord(int x, int y, boolean shared)
+    {
+        xValue = x;
+        yValue = y;
+        this.shared = shared;
     }
     
     /**
@@ -36,6 +89,7 @@ public class Coord
     */
     public Coord(int x, char rowChar) throws InvalidCoordinateException
     {
+        shared = false;
         setX(x);
         setY(rowChar);
     }
@@ -45,6 +99,7 @@ public class Coord
      */
     public Coord()
     {
+        shared = false;
         xValue = 0;
         yValue = 0;
     }
@@ -55,6 +110,7 @@ public class Coord
      */
     public Coord(Coord otherCoord)
     {
+        shared = false;
         if(otherCoord != null)
         {
             this.xValue = otherCoord.getX();
@@ -67,9 +123,101 @@ public class Coord
         }
     }
 
+    /**
+     * Gets the shared instance for a coordinate
+     * @param x x location
+     * @param y y location
+     * @return the shared coord for (x,y)
+     * @throws InvalidCoordinateException thrown if the coordinate is not on the largest board
+     */
+    public static Coord valueOf(int x, int y) throws InvalidCoordinateException
+    {
+        checkBounds(x, y);
+        return getShared(x, y);
+    }
+
+    /**
+     * Gets the shared instance for a coordinate index
+     * @param index the index of the coordinate, y*width + x
+     * @param width width of the board the index is on
+     * @return the shared coord at that index
+     * @throws InvalidCoordinateException thrown if the coordinate is not on the largest board
+     */
+    public static Coord valueOfIndex(int index, int width) throws InvalidCoordinateException
+    {
+        if(index < 0 || width <= 0)
+        {
+            throw new InvalidCoordinateException("Invalid Coordinate Index: " + index);
+        }
+        return valueOf(index % width, index / width);
+    }
+
+    /**
+     * Gets the shared instance with the same values as another coord
+     * @param coord the coord to look up
+     * @return the shared coord with the same x and y. ORIGIN if coord is null
+     */
+    public static Coord valueOf(Coord coord)
+    {
+        if(coord == null)
+        {
+            return ORIGIN;
+        }
+        //every coord's values are checked when they are set
+        return getShared(coord.xValue, coord.yValue);
+    }
+
+    /**
+     * Helper method to look up a shared instance. The coordinate must already
+     * be checked
+     * @param x x location
+     * @param y y location
+     * @return the shared coord for (x,y)
+     */
+    private static Coord getShared(int x, int y)
+    {
+        if(x < SIZE && y < SIZE)
+        {
+            return CACHE[y*SIZE + x];
+        }
+
+        Coord[] row = ROWS.get(y);
+        if(row == null)
+        {
+            row = new Coord[Board.MAX_SIZE];
+            for(int i = 0; i < row.length; i++)
+            {
+                row[i] = new Coord(i, y, true);
+            }
+            //another thread may have made the row first, in which case use theirs
+            if(!ROWS.compareAndSet(y, null, row))
+            {
+                row = ROWS.get(y);
+            }
+        }
+        return row[x];
+    }
+
+    /**
+     * Checks if this is one of the shared instances from valueOf
+     * @return true if this coord can't be changed
+     */
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    /**
+     * Sets the x value. Not allowed on shared instances
+     * @param x the new x value. Must be on the largest board
+     * @throws InvalidCoordinateException thrown if x is not on the board
+     * @deprecated use valueOf to get the coord for the new location instead
+     */
+    @Deprecated
     public void setX(int x) throws InvalidCoordinateException
     {
-        if(x < 0 || x > 9)
+        checkNotShared();
+        if(x < 0 || x >= Board.MAX_SIZE)
         {
             xValue = 0;
             throw new InvalidCoordinateException("Invalid X Coordinate: " + x);
@@ -77,9 +225,17 @@ public class Coord
         xValue = x;
     }
 
+    /**
+     * Sets the y value. Not allowed on shared instances
+     * @param y the new y value. Must be on the largest board
+     * @throws InvalidCoordinateException thrown if y is not on the board
+     * @deprecated use valueOf to get the coord for the new location instead
+     */
+    @Deprecated
     public void setY(int y) throws InvalidCoordinateException
     {
-        if(y < 0 || y > 9)
+        checkNotShared();
+        if(y < 0 || y >= Board.MAX_SIZE)
         {
             yValue = 0;
             throw new InvalidCoordinateException("Invalid Y Coordinate: " + y);
@@ -89,13 +245,16 @@ public class Coord
     
     /**
     Setter for the y coordinate that takes a letter as input
-    @param y letter representation of the y coordinate
+    @param y letter representation of the y coordinate from A to Z
     @throws InvalidCoordinateException 
+    @deprecated use valueOf to get the coord for the new location instead
     */
+    @Deprecated
     public void setY(char y) throws InvalidCoordinateException
     {
+        checkNotShared();
         y = Character.toUpperCase(y);
-        if(y < 65 || y > 74)
+        if(y < 'A' || y > 'Z')
         {
             throw new InvalidCoordinateException("Invalid Y Coordinate: " + y);
         }
@@ -105,6 +264,35 @@ public class Coord
         }
     }
 
+    /**
+     * Helper method to check that a coordinate is on the largest board
+     * @param x x location
+     * @param y y location
+     * @throws InvalidCoordinateException thrown if the coordinate is not on the largest board
+     */
+    private static void checkBounds(int x, int y) throws InvalidCoordinateException
+    {
+        if(x < 0 || x >= Board.MAX_SIZE)
+        {
+            throw new InvalidCoordinateException("Invalid X Coordinate: " + x);
+        }
+        if(y < 0 || y >= Board.MAX_SIZE)
+        {
+            throw new InvalidCoordinateException("Invalid Y Coordinate: " + y);
+        }
+    }
+
+    /**
+     * Helper method to stop the setters from changing a shared instance
+     */
+    private void checkNotShared()
+    {
+        if(shared)
+        {
+            throw new UnsupportedOperationException("Shared coords can't be changed: " + toStringParanthetical());
+        }
+    }
+
     public int getX()
     {
         return xValue;
@@ -115,52 +303,39 @@ public class Coord
         return yValue;
     }
 
+    /**
+     * Gets this coordinate as an index on a board
+     * @param width width of the board
+     * @return y*width + x
+     */
+    public int getIndex(int width)
+    {
+        return yValue*width + xValue;
+    }
+
     /**
      * Creates a string that represents this coord as battleship coordinates i.e. "A1".
-     * Will only work if this coord's y value is from 0 to 9 inclusive
+     * Rows after Z continue with two letters: AA, AB, and so on
      * @return a string representing this coord as battleship coordinates
      */
     public String bShipCoords()
     {
-        String finalCoords = "";
-        switch(yValue)
-        {
-        case 0:
-            finalCoords += "A";
-            break;
-        case 1:
-            finalCoords += "B";
-            break;
-        case 2:
-            finalCoords += "C";
-            break;
-        case 3:
-            finalCoords += "D";
-            break;
-        case 4:
-            finalCoords += "E";
-            break;
-        case 5:
-            finalCoords += "F";
-            break;
-        case 6:
-            finalCoords += "G";
-            break;
-        case 7:
-            finalCoords += "H";
-            break;
-        case 8:
-            finalCoords += "I";
-            break;
-        case 9:
-            finalCoords += "J";
-            break;
-        default:
-            finalCoords += ("ERROR INVALID Y COORDINATE: " + yValue);
-        }
-
-        finalCoords += (xValue + 1);
-        return finalCoords;
+        return getRowLabel(yValue) + (xValue + 1);
+    }
+
+    /**
+     * Gets the letters used for a row in battleship coordinates
+     * @param y the row from 0 at the top
+     * @return A for row 0 up to Z for row 25, then AA, AB, and so on
+     */
+    public static String getRowLabel(int y)
+    {
+        String label = "";
+        for(int row = y + 1; row > 0; row = (row - 1) / 26)
+        {
+            label = (char) ('A' + (row - 1) % 26) + label;
+        }
+        return label;
     }
 
     /**
@@ -0,0 +1,497 @@
+package battleship.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class chooses where to shoot by counting ship placements. For every enemy
+ship still afloat, every horizontal and vertical position it could be in is
+checked against the board. A placement is legal if it doesn't cover a miss or a
+sunken ship. Each legal placement adds to the count of every untouched cell it
+covers, and placements that cover existing hits count for much more since the
+rest of a hit ship must be next to them. The cell with the highest count is the
+one most likely to contain a ship.
+
+The placements come from the shared PlacementIndex, so checking a placement
+is a couple of AND operations.
+
+Boards too big for a PlacementIndex have far too many placements to count after
+every shot. A shot only changes the placements that cover the cell that was
+shot, and those only cover cells within the largest ship length of it on its
+row and column. So on large boards the counts are calculated once (and again
+when a ship sinks, since that changes the weight of every placement) and after
+that only the window around each changed cell is counted again. The highest
+count is tracked with a MaxTree.
+*/
+class DensityTargeter
+{
+    /**number of cells in the low word of each mask*/
+    private static final int WORD_BITS = 64;
+    /**how much more a placement counts for each hit that it covers*/
+    private static final long HIT_MULTIPLIER = 50;
+
+    /**most hits that add to a placement's weight. Placements covering more
+    hits than this count the same, which keeps the counts from overflowing for
+    long ships*/
+    private static final int MAX_WEIGHTED_HITS = 5;
+
+    /**weight of a placement indexed by the number of hits it covers*/
+    private static final long[] HIT_WEIGHTS = new long[MAX_WEIGHTED_HITS + 1];
+
+    static
+    {
+        HIT_WEIGHTS[0] = 1;
+        for(int i = 1; i < HIT_WEIGHTS.length; i++)
+        {
+            HIT_WEIGHTS[i] = HIT_WEIGHTS[i - 1]*HIT_MULTIPLIER;
+        }
+    }
+
+    /**width and height of the board*/
+    private int width;
+    private int height;
+
+    /**table of every placement on the board. null if the board is too big for a table*/
+    private PlacementIndex placements;
+
+    /**number of placements covering each cell from the last calculation when
+    using a table*/
+    private long[] density;
+
+    /**count for each untouched cell when there is no table. Cells that are not
+    untouched are left out*/
+    private MaxTree tree;
+
+    /**number of enemy ships afloat that the tree was calculated with. null if it
+    needs to be calculated from scratch*/
+    private int[] treeShipsAfloat;
+
+    /**
+     * Default constructor for the standard board
+     */
+    DensityTargeter()
+    {
+        this(Board.DEFAULT_SIZE, Board.DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor that takes the size of the board
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     */
+    DensityTargeter(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        placements = PlacementIndex.forSize(width, height);
+        if(placements != null)
+        {
+            density = new long[width*height];
+        }
+        else
+        {
+            tree = new MaxTree(width*height);
+        }
+    }
+
+    /**
+     * Forgets the counts so that they are calculated from scratch the next time
+     * they are needed. Used when the board is cleared
+     */
+    void reset()
+    {
+        treeShipsAfloat = null;
+    }
+
+    /**
+     * Counts the legal placements covering every cell on the board
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     */
+    void calculate(Board board, int[] shipsAfloat)
+    {
+        if(placements == null)
+        {
+            recalculateAll(board, shipsAfloat);
+            return;
+        }
+
+        long blockedLo = board.getWord(Cell.MISS, 0) | board.getWord(Cell.SUNKEN_SHIP, 0);
+        long blockedHi = board.getWord(Cell.MISS, 1) | board.getWord(Cell.SUNKEN_SHIP, 1);
+        long hitLo = board.getWord(Cell.HIT, 0);
+        long hitHi = board.getWord(Cell.HIT, 1);
+        long untouchedLo = board.getWord(Cell.UNTOUCHED, 0);
+        long untouchedHi = board.getWord(Cell.UNTOUCHED, 1);
+
+        for(int i = 0; i < density.length; i++)
+        {
+            density[i] = 0;
+        }
+
+        int maxLength = Math.min(shipsAfloat.length - 1, placements.getMaxLength());
+        for(int length = PlacementIndex.MIN_SHIP_LENGTH; length <= maxLength; length++)
+        {
+            if(shipsAfloat[length] <= 0)
+            {
+                continue;
+            }
+
+            long[] lo = placements.getMasksLo(length);
+            long[] hi = placements.getMasksHi(length);
+            for(int p = 0; p < lo.length; p++)
+            {
+                //placement covers a miss or a sunken ship
+                if((lo[p] & blockedLo) != 0 || (hi[p] & blockedHi) != 0)
+                {
+                    continue;
+                }
+
+                int hits = Long.bitCount(lo[p] & hitLo) + Long.bitCount(hi[p] & hitHi);
+                long weight = getHitWeight(hits)*shipsAfloat[length];
+
+                long bits = lo[p] & untouchedLo;
+                while(bits != 0)
+                {
+                    density[Long.numberOfTrailingZeros(bits)] += weight;
+                    bits &= bits - 1;
+                }
+                bits = hi[p] & untouchedHi;
+                while(bits != 0)
+                {
+                    density[Long.numberOfTrailingZeros(bits) + WORD_BITS] += weight;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the density of the board and chooses the untouched cell with
+     * the highest count. If several are tied then one of them is chosen randomly
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @param rng random number generator used to break ties
+     * @return the index (y*width + x) of the chosen cell. -1 if there are no untouched cells
+     */
+    int pickBest(Board board, int[] shipsAfloat, Random rng)
+    {
+        if(placements == null)
+        {
+            if(treeShipsAfloat == null || !Arrays.equals(treeShipsAfloat, shipsAfloat))
+            {
+                recalculateAll(board, shipsAfloat);
+            }
+            return tree.pickBest(rng);
+        }
+
+        calculate(board, shipsAfloat);
+
+        long untouchedLo = board.getWord(Cell.UNTOUCHED, 0);
+        long untouchedHi = board.getWord(Cell.UNTOUCHED, 1);
+        long highestValue = -1;
+        int numTies = 0;
+        int best = -1;
+        for(int i = 0; i < density.length; i++)
+        {
+            boolean untouched = i < WORD_BITS ? ((untouchedLo >>> i) & 1L) != 0
+                                              : ((untouchedHi >>> (i - WORD_BITS)) & 1L) != 0;
+            if(!untouched)
+            {
+                continue;
+            }
+
+            if(density[i] > highestValue)
+            {
+                highestValue = density[i];
+                numTies = 1;
+                best = i;
+            }
+            //keep each tied cell with equal probability
+            else if(density[i] == highestValue && rng.nextInt(++numTies) == 0)
+            {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets every untouched cell tied for the highest count from the last call to
+     * pickBest
+     * @param board the board of shots that have been fired at the enemy
+     * @param maxCount most cells to return
+     * @return the indexes (y*width + x) of the tied cells in order. null if more
+     * than maxCount cells are tied
+     */
+    int[] getBestCells(Board board, int maxCount)
+    {
+        if(placements == null)
+        {
+            return tree.getBest(maxCount);
+        }
+
+        long highestValue = -1;
+        int numTies = 0;
+        for(int i = 0; i < density.length; i++)
+        {
+            if(board.getCellState(i) != Cell.UNTOUCHED)
+            {
+                continue;
+            }
+            if(density[i] > highestValue)
+            {
+                highestValue = density[i];
+                numTies = 1;
+            }
+            else if(density[i] == highestValue)
+            {
+                numTies++;
+            }
+        }
+        if(numTies > maxCount)
+        {
+            return null;
+        }
+
+        int[] best = new int[numTies];
+        int found = 0;
+        for(int i = 0; i < density.length && found < numTies; i++)
+        {
+            if(density[i] == highestValue && board.getCellState(i) == Cell.UNTOUCHED)
+            {
+                best[found++] = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the count for a cell from the last calculation
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the weighted number of legal placements covering the cell
+     */
+    long getDensity(int x, int y)
+    {
+        if(placements == null)
+        {
+            double count = tree.get(y*width + x);
+            return count == Double.NEGATIVE_INFINITY ? 0 : (long) count;
+        }
+        return density[y*width + x];
+    }
+
+    /**
+     * Updates the counts after the state of a cell has changed. Only needed on
+     * boards without a table. Does nothing if the counts have not been calculated
+     * @param board the board of shots that have been fired at the enemy
+     * @param x x coordinate of the cell that changed
+     * @param y y coordinate of the cell that changed
+     */
+    void cellChanged(Board board, int x, int y)
+    {
+        if(placements != null || treeShipsAfloat == null)
+        {
+            return;
+        }
+
+        int reach = 0;
+        for(int length = PlacementIndex.MIN_SHIP_LENGTH; length < treeShipsAfloat.length; length++)
+        {
+            if(treeShipsAfloat[length] > 0)
+            {
+                reach = length - 1;
+            }
+        }
+        for(int i = Math.max(x - reach, 0); i <= Math.min(x + reach, width - 1); i++)
+        {
+            tree.set(y*width + i, countCell(board, i, y));
+        }
+        for(int j = Math.max(y - reach, 0); j <= Math.min(y + reach, height - 1); j++)
+        {
+            if(j != y)
+            {
+                tree.set(j*width + x, countCell(board, x, j));
+            }
+        }
+    }
+
+    /**
+     * Helper method to count the placements covering every cell of a board
+     * without a table. Each row and column is swept once per ship length,
+     * keeping track of the blocked cells and hits in the ship's window as it
+     * slides along
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     */
+    private void recalculateAll(Board board, int[] shipsAfloat)
+    {
+        double[] counts = new double[width*height];
+        for(int length = PlacementIndex.MIN_SHIP_LENGTH; length < shipsAfloat.length; length++)
+        {
+            if(shipsAfloat[length] <= 0)
+            {
+                continue;
+            }
+            for(int y = 0; y < height; y++)
+            {
+                sweepLine(board, counts, y*width, 1, width, length, shipsAfloat[length]);
+            }
+            for(int x = 0; x < width; x++)
+            {
+                sweepLine(board, counts, x, width, height, length, shipsAfloat[length]);
+            }
+        }
+
+        for(int i = 0; i < counts.length; i++)
+        {
+            boolean untouched = board.getCellState(i) == Cell.UNTOUCHED;
+            tree.setWithoutUpdate(i, untouched ? counts[i] : Double.NEGATIVE_INFINITY);
+        }
+        tree.rebuild();
+        treeShipsAfloat = shipsAfloat.clone();
+    }
+
+    /**
+     * Helper method to add the weight of every legal placement along one row or
+     * column to the cells it covers
+     * @param board the board of shots that have been fired at the enemy
+     * @param counts running count for each cell
+     * @param first index of the first cell in the line
+     * @param step difference in index between neighboring cells in the line
+     * @param cells number of cells in the line
+     * @param length length of the ship
+     * @param numShips number of enemy ships afloat with that length
+     */
+    private void sweepLine(Board board, double[] counts, int first, int step, int cells, int length, int numShips)
+    {
+        int blocked = 0;
+        int hits = 0;
+        //weight of the placement that ended at each cell, which is subtracted once
+        //the running total passes the end of that placement
+        double running = 0;
+        double[] ending = new double[cells];
+        for(int i = 0; i < cells; i++)
+        {
+            int state = board.getCellState(first + i*step);
+            if(state == Cell.MISS || state == Cell.SUNKEN_SHIP)
+            {
+                blocked++;
+            }
+            else if(state == Cell.HIT)
+            {
+                hits++;
+            }
+            if(i >= length)
+            {
+                int oldState = board.getCellState(first + (i - length)*step);
+                if(oldState == Cell.MISS || oldState == Cell.SUNKEN_SHIP)
+                {
+                    blocked--;
+                }
+                else if(oldState == Cell.HIT)
+                {
+                    hits--;
+                }
+            }
+
+            //the placement from i - length + 1 to i
+            if(i >= length - 1 && blocked == 0)
+            {
+                double weight = (double) getHitWeight(hits)*numShips;
+                running += weight;
+                ending[i] = weight;
+            }
+        }
+
+        //every cell is covered by the placements that end from it to length - 1 cells after it
+        running = 0;
+        for(int i = cells - 1; i >= 0; i--)
+        {
+            running += ending[i];
+            if(i + length < cells)
+            {
+                running -= ending[i + length];
+            }
+            counts[first + i*step] += running;
+        }
+    }
+
+    /**
+     * Helper method to count the placements covering a single cell from scratch
+     * on a board without a table
+     * @param board the board of shots that have been fired at the enemy
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the weighted number of legal placements covering the cell.
+     * Negative infinity if the cell is not untouched
+     */
+    private double countCell(Board board, int x, int y)
+    {
+        if(board.getCellState(x, y) != Cell.UNTOUCHED)
+        {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double count = 0;
+        for(int length = PlacementIndex.MIN_SHIP_LENGTH; length < treeShipsAfloat.length; length++)
+        {
+            if(treeShipsAfloat[length] <= 0)
+            {
+                continue;
+            }
+            long total = 0;
+            for(int start = Math.max(x - length + 1, 0); start <= Math.min(x, width - length); start++)
+            {
+                total += placementWeight(board, start, y, 1, 0, length);
+            }
+            for(int start = Math.max(y - length + 1, 0); start <= Math.min(y, height - length); start++)
+            {
+                total += placementWeight(board, x, start, 0, 1, length);
+            }
+            count += (double) total*treeShipsAfloat[length];
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to find the weight of a single placement
+     * @param board the board of shots that have been fired at the enemy
+     * @param x x coordinate of the placement's first cell
+     * @param y y coordinate of the placement's first cell
+     * @param dx change in x for each cell. 0 or 1
+     * @param dy change in y for each cell. 0 or 1
+     * @param length length of the ship
+     * @return the weight of the placement. 0 if it covers a miss or a sunken ship
+     */
+    private long placementWeight(Board board, int x, int y, int dx, int dy, int length)
+    {
+        int hits = 0;
+        for(int i = 0; i < length; i++)
+        {
+            int state = board.getCellState(x + i*dx, y + i*dy);
+            if(state == Cell.MISS || state == Cell.SUNKEN_SHIP)
+            {
+                return 0;
+            }
+            else if(state == Cell.HIT)
+            {
+                hits++;
+            }
+        }
+        return getHitWeight(hits);
+    }
+
+    /**
+     * Helper method to find how much a placement counts for
+     * @param hits number of hits the placement covers
+     * @return the placement's weight
+     */
+    private static long getHitWeight(int hits)
+    {
+        return HIT_WEIGHTS[Math.min(hits, MAX_WEIGHTED_HITS)];
+    }
+}
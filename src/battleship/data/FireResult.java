@@ -1,5 +1,7 @@
 package battleship.data;
 
+import battleship.exceptions.InvalidCoordinateException;
+
 /**
 Programmer: Steven Siddall
  @author Steven Siddall
@@ -38,7 +40,7 @@ public class FireResult
     {
         sunkShip = null;
         result = 0;
-        target = new Coord();
+        target = Coord.ORIGIN;
     }
 
     /**
@@ -51,7 +53,7 @@ public class FireResult
     {
         this.sunkShip = sunkShip;
         this.result = result;
-        this.target = target;
+        this.target = Coord.valueOf(target);
     }
 
     public void setSunkShip(Ship sunkShip)
@@ -66,7 +68,30 @@ public class FireResult
 
     public void setTarget(Coord target)
     {
-        this.target = target;
+        this.target = Coord.valueOf(target);
+    }
+
+    /**
+    Sets the target from its index
+    @param index index of the location that was shot at, y*width + x
+    @param width number of columns on the board
+    @return true if the index was on the board and the target was set
+    */
+    public boolean setTarget(int index, int width)
+    {
+        if(index < 0 || width <= 0)
+        {
+            return false;
+        }
+        try
+        {
+            target = Coord.valueOfIndex(index, width);
+        }
+        catch(InvalidCoordinateException e) //should never happen since the index was checked
+        {
+            return false;
+        }
+        return true;
     }
 
     public Ship getSunkShip()
@@ -93,4 +118,14 @@ public class FireResult
     {
         return target.getY();
     }
+
+    /**
+    Gets the index of the target
+    @param width number of columns on the board
+    @return the index of the location that was shot at, y*width + x
+    */
+    public int getTargetIndex(int width)
+    {
+        return target.getIndex(width);
+    }
 }
@@ -0,0 +1,594 @@
+package battleship.data;
+
+import battleship.exceptions.InvalidBoardSizeException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class generates random fleets without ever retrying a placement. Ships are
+placed one at a time. For each ship, every placement in the PlacementIndex that
+doesn't overlap the ships already placed is counted and one of them is chosen
+uniformly, so every ship is placed with a single random number.
+
+Boards too big for a PlacementIndex have too many placements to count for every
+ship. There, a placement is drawn uniformly from all placements on the board and
+drawn again if it overlaps a ship, which is still uniform over the legal
+placements. On a big board this almost never happens. If a ship keeps
+overlapping, the legal placements are counted like on a small board instead.
+
+Fleets can also be generated to match the shots fired at a board: ships can't
+cover blocked cells (misses and sunken ships) and must cover every required
+cell (hits). Each required cell that isn't covered yet gets a ship first, chosen
+uniformly from the unplaced ships and their free placements over that cell, and
+the rest of the fleet is placed as usual. This never has to retry a fleet, but
+it isn't exactly uniform over the fleets that match the board: fleets that use
+several ships to cover a group of required cells come up more often than they
+would by chance.
+
+Fleets are written into int arrays with one int per ship, in the same order as
+the ship lengths given to the constructor. Each int holds the index of the
+ship's top left cell (y*width + x) shifted left by one, with the lowest bit set
+if the ship is horizontal. Use getStartCell and isHorizontal to read them.
+*/
+public class FleetGenerator
+{
+    /**ship lengths of the standard fleet in the order they are placed. Larger
+    ships are placed first since they have the fewest legal placements*/
+    public static final int[] CLASSIC_FLEET = {5, 4, 3, 3, 2};
+
+    /**number of random placements tried for a ship on a large board before
+    counting the legal placements instead*/
+    private static final int MAX_ATTEMPTS = 64;
+
+    /**number of cells in each word of the occupied bitset*/
+    private static final int WORD_BITS = 64;
+
+    /**lengths of the ships in each fleet*/
+    private int[] shipLengths;
+
+    /**width and height of the board*/
+    private int width;
+    private int height;
+
+    /**table of every placement on the board. null if the board is too big for a table*/
+    private PlacementIndex placements;
+
+    /**cells covered by the ships placed so far when there is no table or when
+    covering required cells. Reused for every fleet*/
+    private long[] occupied;
+
+    /**true for each ship that has been placed while covering required cells.
+    Created the first time it is needed*/
+    private boolean[] placed;
+
+    /**random number generator used to choose placements*/
+    private Random rng;
+
+    /**
+     * Constructor that generates the standard fleet
+     * @param rng random number generator used to choose placements
+     */
+    public FleetGenerator(Random rng)
+    {
+        this(CLASSIC_FLEET, rng);
+    }
+
+    /**
+     * Full constructor
+     * @param shipLengths length of each ship in the fleet. Each must fit on the board
+     * @param rng random number generator used to choose placements
+     */
+    public FleetGenerator(int[] shipLengths, Random rng)
+    {
+        this.shipLengths = shipLengths.clone();
+        this.width = Board.DEFAULT_SIZE;
+        this.height = Board.DEFAULT_SIZE;
+        this.placements = PlacementIndex.CLASSIC;
+        this.rng = rng;
+    }
+
+    /**
+     * Constructor for boards of any size
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     * @param shipLengths length of each ship in the fleet. Each must fit on the board
+     * @param rng random number generator used to choose placements
+     * @throws InvalidBoardSizeException thrown if the board size is not supported
+     */
+    public FleetGenerator(int width, int height, int[] shipLengths, Random rng) throws InvalidBoardSizeException
+    {
+        Board.checkSize(width, height);
+        this.shipLengths = shipLengths.clone();
+        this.width = width;
+        this.height = height;
+        this.placements = PlacementIndex.forSize(width, height);
+        if(placements == null)
+        {
+            occupied = new long[(width*height + WORD_BITS - 1) / WORD_BITS];
+        }
+        this.rng = rng;
+    }
+
+    /**
+     * Gets the number of ships in each fleet
+     * @return the number of ints that each fleet takes up in an array
+     */
+    public int getNumShips()
+    {
+        return shipLengths.length;
+    }
+
+    /**
+     * Generates a single fleet on an empty board
+     * @param fleet array to write the fleet into
+     * @param offset index in the array to write the first ship at
+     * @return true if every ship was placed. Only false if the board is too
+     * crowded for the fleet
+     */
+    public boolean nextFleet(int[] fleet, int offset)
+    {
+        if(placements == null)
+        {
+            return nextFleet(fleet, offset, null);
+        }
+        return nextFleet(fleet, offset, 0, 0);
+    }
+
+    /**
+     * Generates a single fleet where no ship covers the cells in a mask
+     * @param fleet array to write the fleet into
+     * @param offset index in the array to write the first ship at
+     * @param blockedLo low word of the mask of cells that ships can't cover
+     * @param blockedHi high word of the mask of cells that ships can't cover
+     * @return true if every ship was placed, false if a ship had nowhere to go
+     */
+    public boolean nextFleet(int[] fleet, int offset, long blockedLo, long blockedHi)
+    {
+        if(placements == null)
+        {
+            return nextFleet(fleet, offset, new long[]{blockedLo, blockedHi});
+        }
+
+        long occupiedLo = blockedLo;
+        long occupiedHi = blockedHi;
+        for(int s = 0; s < shipLengths.length; s++)
+        {
+            int length = shipLengths[s];
+            int placement = choosePlacement(length, occupiedLo, occupiedHi);
+            if(placement < 0)
+            {
+                return false;
+            }
+
+            occupiedLo |= placements.getMasksLo(length)[placement];
+            occupiedHi |= placements.getMasksHi(length)[placement];
+            fleet[offset + s] = (placements.getStart(length, placement) << 1) |
+                                (placements.isHorizontal(length, placement) ? 1 : 0);
+        }
+        return true;
+    }
+
+    /**
+     * Generates a single fleet where no ship covers the cells in a bitset. Works
+     * on boards of any size
+     * @param fleet array to write the fleet into
+     * @param offset index in the array to write the first ship at
+     * @param blocked bitset of cells that ships can't cover, using the same
+     * layout as the board. Can be shorter than the board or null
+     * @return true if every ship was placed, false if a ship had nowhere to go
+     */
+    public boolean nextFleet(int[] fleet, int offset, long[] blocked)
+    {
+        if(placements != null)
+        {
+            long blockedLo = blocked != null && blocked.length > 0 ? blocked[0] : 0;
+            long blockedHi = blocked != null && blocked.length > 1 ? blocked[1] : 0;
+            return nextFleet(fleet, offset, blockedLo, blockedHi);
+        }
+
+        Arrays.fill(occupied, 0);
+        if(blocked != null)
+        {
+            System.arraycopy(blocked, 0, occupied, 0, Math.min(blocked.length, occupied.length));
+        }
+        for(int s = 0; s < shipLengths.length; s++)
+        {
+            int ship = chooseShip(shipLengths[s]);
+            if(ship < 0)
+            {
+                return false;
+            }
+            int step = isHorizontal(ship) ? 1 : width;
+            for(int i = 0, cell = getStartCell(ship); i < shipLengths[s]; i++, cell += step)
+            {
+                occupied[cell / WORD_BITS] |= 1L << cell;
+            }
+            fleet[offset + s] = ship;
+        }
+        return true;
+    }
+
+    /**
+     * Generates a single fleet where no ship covers a blocked cell and every
+     * required cell is covered by a ship. Works on boards of any size
+     * @param fleet array to write the fleet into
+     * @param offset index in the array to write the first ship at
+     * @param blocked bitset of cells that ships can't cover, using the same
+     * layout as the board. Can be shorter than the board or null
+     * @param required bitset of cells that a ship has to cover. Can be shorter
+     * than the board or null
+     * @return true if every ship was placed, false if a ship had nowhere to go
+     * or there weren't enough ships to cover the required cells
+     */
+    public boolean nextFleet(int[] fleet, int offset, long[] blocked, long[] required)
+    {
+        if(required == null)
+        {
+            return nextFleet(fleet, offset, blocked);
+        }
+        if(occupied == null)
+        {
+            occupied = new long[(width*height + WORD_BITS - 1) / WORD_BITS];
+        }
+        if(placed == null)
+        {
+            placed = new boolean[shipLengths.length];
+        }
+
+        Arrays.fill(occupied, 0);
+        if(blocked != null)
+        {
+            System.arraycopy(blocked, 0, occupied, 0, Math.min(blocked.length, occupied.length));
+        }
+        Arrays.fill(placed, false);
+
+        //cover the required cells from first to last
+        int numWords = Math.min(required.length, occupied.length);
+        for(int word = 0; word < numWords; word++)
+        {
+            long uncovered = required[word] & ~occupied[word];
+            while(uncovered != 0)
+            {
+                int cell = word*WORD_BITS + Long.numberOfTrailingZeros(uncovered);
+                if(!coverCell(fleet, offset, cell))
+                {
+                    return false;
+                }
+                uncovered = required[word] & ~occupied[word];
+            }
+        }
+
+        //place the rest of the fleet anywhere that is free
+        for(int s = 0; s < shipLengths.length; s++)
+        {
+            if(placed[s])
+            {
+                continue;
+            }
+            int ship;
+            if(placements != null)
+            {
+                int placement = choosePlacement(shipLengths[s], occupied[0], occupied.length > 1 ? occupied[1] : 0);
+                ship = placement < 0 ? -1 : (placements.getStart(shipLengths[s], placement) << 1) |
+                                            (placements.isHorizontal(shipLengths[s], placement) ? 1 : 0);
+            }
+            else
+            {
+                ship = chooseShip(shipLengths[s]);
+            }
+            if(ship < 0)
+            {
+                return false;
+            }
+            occupy(ship, shipLengths[s]);
+            fleet[offset + s] = ship;
+        }
+        return true;
+    }
+
+    /**
+     * Fills an array with many fleets back to back for simulations
+     * @param fleets array to write the fleets into
+     * @param numFleets number of fleets to generate
+     * @return the number of fleets written at the start of the array. Less than
+     * numFleets if the array is too small or some fleets couldn't be placed.
+     * Anything after the fleets written is left over from failed attempts
+     */
+    public int generateFleets(int[] fleets, int numFleets)
+    {
+        int numAttempts = Math.min(numFleets, fleets.length / shipLengths.length);
+        int numWritten = 0;
+        for(int f = 0; f < numAttempts; f++)
+        {
+            //a failed fleet is written over by the next attempt
+            if(nextFleet(fleets, numWritten*shipLengths.length))
+            {
+                numWritten++;
+            }
+        }
+        return numWritten;
+    }
+
+    /**
+     * Chooses a placement for one ship uniformly from the placements that don't
+     * overlap any occupied cells
+     * @param length length of the ship
+     * @param occupiedLo low word of the mask of occupied cells
+     * @param occupiedHi high word of the mask of occupied cells
+     * @return the number of the placement. -1 if there are no legal placements
+     */
+    int choosePlacement(int length, long occupiedLo, long occupiedHi)
+    {
+        long[] lo = placements.getMasksLo(length);
+        long[] hi = placements.getMasksHi(length);
+
+        int numLegal = 0;
+        for(int p = 0; p < lo.length; p++)
+        {
+            if((lo[p] & occupiedLo) == 0 && (hi[p] & occupiedHi) == 0)
+            {
+                numLegal++;
+            }
+        }
+        if(numLegal == 0)
+        {
+            return -1;
+        }
+
+        int chosen = rng.nextInt(numLegal);
+        for(int p = 0; p < lo.length; p++)
+        {
+            if((lo[p] & occupiedLo) == 0 && (hi[p] & occupiedHi) == 0 && chosen-- == 0)
+            {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to place one of the unplaced ships over a cell. The ship
+     * and placement are chosen uniformly from every free placement of every
+     * unplaced ship that covers the cell
+     * @param fleet array to write the fleet into
+     * @param offset index in the array of the first ship
+     * @param cell index (y*width + x) of the cell to cover
+     * @return true if a ship was placed, false if no unplaced ship fits over the cell
+     */
+    private boolean coverCell(int[] fleet, int offset, int cell)
+    {
+        int numLegal = 0;
+        for(int s = 0; s < shipLengths.length; s++)
+        {
+            if(!placed[s])
+            {
+                numLegal += countCovering(cell, shipLengths[s]);
+            }
+        }
+        if(numLegal == 0)
+        {
+            return false;
+        }
+
+        int chosen = rng.nextInt(numLegal);
+        for(int s = 0; s < shipLengths.length; s++)
+        {
+            if(placed[s])
+            {
+                continue;
+            }
+            int count = countCovering(cell, shipLengths[s]);
+            if(chosen < count)
+            {
+                int ship = findCovering(cell, shipLengths[s], chosen);
+                occupy(ship, shipLengths[s]);
+                placed[s] = true;
+                fleet[offset + s] = ship;
+                return true;
+            }
+            chosen -= count;
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to count the free placements of a ship that cover a cell.
+     * Horizontal placements are counted first, from the leftmost start, then
+     * vertical ones from the topmost start
+     * @param cell index (y*width + x) of the cell
+     * @param length length of the ship
+     * @return the number of free placements covering the cell
+     */
+    private int countCovering(int cell, int length)
+    {
+        int count = 0;
+        for(int p = 0; p < 2*length; p++)
+        {
+            if(getCovering(cell, length, p) >= 0)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to find one of the free placements of a ship that cover a cell
+     * @param cell index (y*width + x) of the cell
+     * @param length length of the ship
+     * @param chosen which of the free placements to return, counted the same
+     * way as countCovering
+     * @return the ship written the same way as in a fleet. -1 if there aren't that many
+     */
+    private int findCovering(int cell, int length, int chosen)
+    {
+        for(int p = 0; p < 2*length; p++)
+        {
+            int ship = getCovering(cell, length, p);
+            if(ship >= 0 && chosen-- == 0)
+            {
+                return ship;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to get one of the placements of a ship that could cover a
+     * cell. The first length placements are horizontal and the rest are vertical
+     * @param cell index (y*width + x) of the cell
+     * @param length length of the ship
+     * @param p number of the placement from 0 to 2*length - 1
+     * @return the ship written the same way as in a fleet. -1 if it goes off the board or isn't free
+     */
+    private int getCovering(int cell, int length, int p)
+    {
+        int x = cell % width;
+        int y = cell / width;
+        int ship;
+        if(p < length)
+        {
+            int startX = x - p;
+            if(startX < 0 || startX + length > width)
+            {
+                return -1;
+            }
+            ship = (y*width + startX) << 1 | 1;
+        }
+        else
+        {
+            int startY = y - (p - length);
+            if(startY < 0 || startY + length > height)
+            {
+                return -1;
+            }
+            ship = (startY*width + x) << 1;
+        }
+        return isFree(ship, length) ? ship : -1;
+    }
+
+    /**
+     * Helper method to mark the cells of a ship as occupied
+     * @param ship the ship written the same way as in a fleet
+     * @param length length of the ship
+     */
+    private void occupy(int ship, int length)
+    {
+        int step = isHorizontal(ship) ? 1 : width;
+        for(int i = 0, cell = getStartCell(ship); i < length; i++, cell += step)
+        {
+            occupied[cell / WORD_BITS] |= 1L << cell;
+        }
+    }
+
+    /**
+     * Chooses a placement for one ship uniformly from the placements that don't
+     * overlap any occupied cells on a board without a table
+     * @param length length of the ship
+     * @return the ship written the same way as in a fleet. -1 if there are no legal placements
+     */
+    private int chooseShip(int length)
+    {
+        int perRow = width - length + 1;
+        int numHorizontal = perRow > 0 ? height*perRow : 0;
+        int numVertical = height - length + 1 > 0 ? width*(height - length + 1) : 0;
+        int total = numHorizontal + numVertical;
+        if(total == 0)
+        {
+            return -1;
+        }
+
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+        {
+            int ship = getShip(rng.nextInt(total), length, numHorizontal);
+            if(isFree(ship, length))
+            {
+                return ship;
+            }
+        }
+
+        //the board is crowded so count the legal placements and choose one of them
+        int numLegal = 0;
+        for(int p = 0; p < total; p++)
+        {
+            if(isFree(getShip(p, length, numHorizontal), length))
+            {
+                numLegal++;
+            }
+        }
+        if(numLegal == 0)
+        {
+            return -1;
+        }
+        int chosen = rng.nextInt(numLegal);
+        for(int p = 0; p < total; p++)
+        {
+            int ship = getShip(p, length, numHorizontal);
+            if(isFree(ship, length) && chosen-- == 0)
+            {
+                return ship;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to turn a placement number into a ship. Placements are
+     * numbered the same way as in a PlacementIndex, horizontal ones first
+     * @param placement number of the placement
+     * @param length length of the ship
+     * @param numHorizontal number of horizontal placements for this length
+     * @return the ship written the same way as in a fleet
+     */
+    private int getShip(int placement, int length, int numHorizontal)
+    {
+        if(placement < numHorizontal)
+        {
+            int perRow = width - length + 1;
+            return ((placement / perRow)*width + placement % perRow) << 1 | 1;
+        }
+        return (placement - numHorizontal) << 1;
+    }
+
+    /**
+     * Helper method to check if a ship would cover any occupied cells
+     * @param ship the ship written the same way as in a fleet
+     * @param length length of the ship
+     * @return true if none of the ship's cells are occupied
+     */
+    private boolean isFree(int ship, int length)
+    {
+        int step = isHorizontal(ship) ? 1 : width;
+        for(int i = 0, cell = getStartCell(ship); i < length; i++, cell += step)
+        {
+            if((occupied[cell / WORD_BITS] & (1L << cell)) != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the top left cell of a ship written by this generator
+     * @param ship the int that the ship was written as
+     * @return the index (y*width + x) of the ship's top left cell
+     */
+    public static int getStartCell(int ship)
+    {
+        return ship >>> 1;
+    }
+
+    /**
+     * Reads the orientation of a ship written by this generator
+     * @param ship the int that the ship was written as
+     * @return true if the ship runs left to right, false if it runs top to bottom
+     */
+    public static boolean isHorizontal(int ship)
+    {
+        return (ship & 1) != 0;
+    }
+}
@@ -0,0 +1,221 @@
+package battleship.data;
+
+import battleship.exceptions.InvalidShipSizeException;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class describes the ships that make up a fleet: a name and a length for
+each ship. Players, fleet generation and the computer's targeting all work from
+a FleetSpec instead of assuming the five classic ships, so a game can use any
+number of ships of any lengths that fit on the board.
+
+Ships are numbered in the order they were given. That number is the ship's slot
+in the player, and fleets are generated in that order. A FleetSpec can't be
+changed once it is made, so one can be shared by any number of players.
+*/
+public final class FleetSpec
+{
+    /**most ships that a fleet can have*/
+    public static final int MAX_SHIPS = Byte.MAX_VALUE;
+
+    /**the standard fleet. Larger ships come first since they have the fewest
+    legal placements*/
+    public static final FleetSpec CLASSIC;
+
+    static
+    {
+        FleetSpec classic = null;
+        try
+        {
+            classic = new FleetSpec(new String[]{"Carrier", "Battleship", "Cruiser", "Submarine", "Patrol Boat"},
+                                    new int[]{5, 4, 3, 3, 2});
+        }
+        catch(InvalidShipSizeException e) //should never happen since the lengths are valid
+        {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        CLASSIC = classic;
+    }
+
+    /**name of each ship*/
+    private final String[] names;
+
+    /**length of each ship*/
+    private final int[] lengths;
+
+    /**length of the longest ship*/
+    private final int maxLength;
+
+    /**total number of cells covered by every ship in the fleet*/
+    private final int totalCells;
+
+    /**
+     * Constructor that names the ships "Ship 1", "Ship 2" and so on
+     * @param lengths length of each ship
+     * @throws InvalidShipSizeException thrown if there are no ships, too many
+     * ships, or a length is not a valid ship size
+     */
+    public FleetSpec(int[] lengths) throws InvalidShipSizeException
+    {
+        this(defaultNames(lengths == null ? 0 : lengths.length), lengths);
+    }
+
+    /**
+     * Full constructor
+     * @param names name of each ship
+     * @param lengths length of each ship. Must be the same length as names
+     * @throws InvalidShipSizeException thrown if there are no ships, too many
+     * ships, the arrays are different lengths, or a length is not a valid ship size
+     */
+    public FleetSpec(String[] names, int[] lengths) throws InvalidShipSizeException
+    {
+        if(names == null || lengths == null || names.length != lengths.length)
+        {
+            throw new InvalidShipSizeException("Invalid Fleet: every ship needs one name and one length");
+        }
+        if(lengths.length == 0 || lengths.length > MAX_SHIPS)
+        {
+            throw new InvalidShipSizeException("Invalid Fleet: must have from 1 to " + MAX_SHIPS + " ships");
+        }
+
+        int longest = 0;
+        int cells = 0;
+        for(int i = 0; i < lengths.length; i++)
+        {
+            if(names[i] == null)
+            {
+                throw new InvalidShipSizeException("Invalid Fleet: ship " + (i + 1) + " has no name");
+            }
+            if(!Ship.isValidSize(lengths[i]))
+            {
+                throw new InvalidShipSizeException("Invalid Fleet: " + names[i] + " has invalid size " + lengths[i]);
+            }
+            longest = Math.max(longest, lengths[i]);
+            cells += lengths[i];
+        }
+
+        this.names = names.clone();
+        this.lengths = lengths.clone();
+        maxLength = longest;
+        totalCells = cells;
+    }
+
+    /**
+     * Gets the number of ships in the fleet
+     * @return the number of ships
+     */
+    public int getNumShips()
+    {
+        return lengths.length;
+    }
+
+    /**
+     * Gets the name of a ship
+     * @param slot number of the ship in the fleet
+     * @return the ship's name
+     */
+    public String getName(int slot)
+    {
+        return names[slot];
+    }
+
+    /**
+     * Gets the length of a ship
+     * @param slot number of the ship in the fleet
+     * @return the number of cells the ship takes up
+     */
+    public int getLength(int slot)
+    {
+        return lengths[slot];
+    }
+
+    /**
+     * Gets the length of every ship in the fleet
+     * @return a copy of the lengths in slot order
+     */
+    public int[] getLengths()
+    {
+        return lengths.clone();
+    }
+
+    public int getMaxLength()
+    {
+        return maxLength;
+    }
+
+    public int getTotalCells()
+    {
+        return totalCells;
+    }
+
+    /**
+     * Counts the ships of each length
+     * @return a new array with the number of ships of each length, indexed by length
+     */
+    public int[] getShipsPerLength()
+    {
+        int[] counts = new int[maxLength + 1];
+        for(int length : lengths)
+        {
+            counts[length]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Finds a ship by its name
+     * @param name the name of the ship
+     * @return the ship's slot. -1 if no ship has that name
+     */
+    public int findShip(String name)
+    {
+        for(int i = 0; i < names.length; i++)
+        {
+            if(names[i].equals(name))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if every ship fits on a board and there are enough cells for the
+     * whole fleet. A fleet that fits can still be too crowded to place randomly
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     * @return true if the fleet fits
+     */
+    public boolean fitsOn(int width, int height)
+    {
+        return maxLength <= Math.max(width, height) && totalCells <= width*height;
+    }
+
+    public String toString()
+    {
+        String returnStr = "";
+        for(int i = 0; i < names.length; i++)
+        {
+            returnStr += names[i] + ": " + lengths[i] + "\n";
+        }
+        return returnStr;
+    }
+
+    /**
+     * Helper method to make the default ship names
+     * @param numShips number of ships
+     * @return the names "Ship 1" to "Ship numShips"
+     */
+    private static String[] defaultNames(int numShips)
+    {
+        String[] defaults = new String[numShips];
+        for(int i = 0; i < numShips; i++)
+        {
+            defaults[i] = "Ship " + (i + 1);
+        }
+        return defaults;
+    }
+}
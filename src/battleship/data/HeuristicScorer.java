@@ -0,0 +1,243 @@
+package battleship.data;
+
+import java.util.Random;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class calculates the point values that the computer uses to decide where
+to shoot next. Every untouched cell gets points for the untouched and hit cells
+next to it in each direction, up to the length of the largest enemy ship still
+afloat.
+
+Since a cell's value only depends on the cells within maxShipLength - 1 of it on
+its own row and column, a single shot only changes the values in that window.
+Instead of rescanning the whole board after every shot, only the window around
+the cells that changed is recalculated. The highest value is tracked with a
+MaxTree, so the best cell can be found (and a tie broken randomly) without
+looking at every cell. The work per shot doesn't grow with the size of the board.
+*/
+class HeuristicScorer
+{
+    //constants for point calculation formulas:
+    //***MOST OF THESE ARE NOT CURRENTLY BEING USED***
+
+    /**denominator value for 'a' term of point formula for hit cells*/
+    private static double A_DENOM = 1.9;
+    /**denominator value for 'b' term of point formula for hit cells*/
+    private static double B_DENOM = 10;
+    /**value for 'c' term of point formula for hit cells*/
+    private static double BASE_VALUE_HIT = 20.0;
+    /**base value for point formula for untouched cells*/
+    private static double BASE_VALUE_UNTOUCHED = 5;
+    /**multiplier for diminishing point value of untouched cells*/
+    private static double DIMINISHING_MULTIPLIER = 1;
+
+    /**the board that the values are calculated for. Shared with the player*/
+    private Board board;
+
+    /**the max ship length that the current values were calculated with.
+    -1 if the values have never been calculated*/
+    private int maxLength;
+
+    /**width and height of the board*/
+    private int width;
+    private int height;
+
+    /**the point value of every cell, indexed by y*width + x*/
+    private MaxTree tree;
+
+    /**
+     * Constructor that takes the board to score. Values will not be calculated
+     * until recalculateAll is called
+     * @param board the board to calculate point values for
+     */
+    HeuristicScorer(Board board)
+    {
+        this.board = board;
+        maxLength = -1;
+        width = board.getWidth();
+        height = board.getHeight();
+        tree = new MaxTree(width*height);
+    }
+
+    /**
+     * Forgets the current values so that they are recalculated from scratch
+     * the next time they are needed. Used when the board is cleared
+     */
+    void reset()
+    {
+        maxLength = -1;
+    }
+
+    /**
+     * Checks if the values need to be recalculated from scratch because they
+     * were calculated with a different max ship length
+     * @param maxShipLength the current length of the largest enemy ship afloat
+     * @return true if recalculateAll needs to be called
+     */
+    boolean isStale(int maxShipLength)
+    {
+        return maxLength != maxShipLength;
+    }
+
+    /**
+     * Recalculates the point values for every cell on the board
+     * @param maxShipLength the length of the largest enemy ship afloat
+     */
+    void recalculateAll(int maxShipLength)
+    {
+        maxLength = maxShipLength;
+        for(int y = 0; y < height; y++)
+        {
+            for(int x = 0; x < width; x++)
+            {
+                double points = calcPoints(x, y);
+                board.setCellValue(x, y, points);
+                tree.setWithoutUpdate(y*width + x, points);
+            }
+        }
+        tree.rebuild();
+    }
+
+    /**
+     * Updates the point values after the state of a cell has changed. Only the
+     * cells on the same row and column within reach of the largest ship are
+     * recalculated. Does nothing if the values have never been calculated
+     * @param x x coordinate of the cell that changed
+     * @param y y coordinate of the cell that changed
+     */
+    void cellChanged(int x, int y)
+    {
+        if(maxLength < 0)
+        {
+            return;
+        }
+
+        int reach = Math.max(maxLength - 1, 0);
+        for(int i = Math.max(x - reach, 0); i <= Math.min(x + reach, width - 1); i++)
+        {
+            updateCell(i, y);
+        }
+        for(int j = Math.max(y - reach, 0); j <= Math.min(y + reach, height - 1); j++)
+        {
+            if(j != y)
+            {
+                updateCell(x, j);
+            }
+        }
+    }
+
+    /**
+     * Chooses the cell with the highest point value. If several are tied for
+     * the highest value then one of them is chosen randomly
+     * @param rng random number generator used to break ties
+     * @return the index (y*width + x) of the chosen cell. -1 if the values have never been calculated
+     */
+    int pickBest(Random rng)
+    {
+        if(maxLength < 0)
+        {
+            return -1;
+        }
+        return tree.pickBest(rng);
+    }
+
+    /**
+     * Gets every cell tied for the highest point value
+     * @param maxCount most cells to return
+     * @return the indexes (y*width + x) of the tied cells in order. null if more
+     * than maxCount cells are tied or the values have never been calculated
+     */
+    int[] getBestCells(int maxCount)
+    {
+        if(maxLength < 0)
+        {
+            return null;
+        }
+        return tree.getBest(maxCount);
+    }
+
+    /**
+     * Helper method to recalculate a single cell and update the tree above it
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     */
+    private void updateCell(int x, int y)
+    {
+        double points = calcPoints(x, y);
+        board.setCellValue(x, y, points);
+        tree.set(y*width + x, points);
+    }
+
+    /**
+     * Helper method to calculate the total point value of a single cell
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the point value of the cell
+     */
+    private double calcPoints(int x, int y)
+    {
+        //only untouched cells can have point values
+        if(board.getCellState(x, y) != Cell.UNTOUCHED)
+        {
+            return 0;
+        }
+        return calcPointsInDirection(x, y, 0, -1) +
+               calcPointsInDirection(x, y, 0, 1) +
+               calcPointsInDirection(x, y, -1, 0) +
+               calcPointsInDirection(x, y, 1, 0);
+    }
+
+    /**
+     * this method will calculate a cell's point value only for the adjacent
+     * cells in one direction. y = 0 is the top row of the board
+     * @param x x coordinate of the cell that we are assigning a point value to
+     * @param y y coordinate of the cell that we are assigning a point value to
+     * @param dx change in x for each step. -1, 0, or 1
+     * @param dy change in y for each step. -1, 0, or 1
+     * @return the point value for the adjacent cells in that direction
+     */
+    private double calcPointsInDirection(int x, int y, int dx, int dy)
+    {
+        double points = 0; //running total to return
+        int maxCounter = maxLength - 1; //decremented to account for counter starting at 0
+        int counter = 0; //for making sure we don't go over the max length
+
+        //loop's condition checks if we go out of bounds of the board
+        //more specific break conditions are checked inside the loop
+        for(int i = x, j = y; i >= 0 && i < width && j >= 0 && j < height; i += dx, j += dy)
+        {
+            int currentState = board.getCellState(i, j);
+
+            //make sure we don't check past the necessary number of cells
+            if(counter > maxCounter)
+            {
+                break;
+            }
+            //make sure we stop if we encounter a sunken ship or missed shot
+            else if(currentState == Cell.MISS || currentState == Cell.SUNKEN_SHIP)
+            {
+                break;
+            }
+            //add a small amount of points for an untouched adjacent cell
+            else if(currentState == Cell.UNTOUCHED)
+            {
+                points += BASE_VALUE_UNTOUCHED - counter*DIMINISHING_MULTIPLIER;
+                counter++;
+            }
+            //add a large amount of points for an adjacent hit
+            // uses formula: -x^2/a - x/b + c
+            // where x = counter, a = A_DENOM, b = B_DENOM, c = BASE_VALUE
+            else if(currentState == Cell.HIT)
+            {
+                //points += -(counter*counter)/A_DENOM - counter/B_DENOM + BASE_VALUE_HIT;
+                points += 30 - (5*counter);
+                counter++;
+            }
+        }
+
+        return points;
+    }
+}
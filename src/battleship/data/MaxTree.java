@@ -0,0 +1,210 @@
+package battleship.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class keeps track of the highest value in an array that changes a few
+entries at a time. It is a tournament tree that stores the highest value below
+each node and how many entries are tied for it, so changing an entry only
+updates the nodes above it and the highest entry (with ties broken randomly)
+can be found without looking at every entry.
+
+Entries set to negative infinity are left out, so they are never picked.
+*/
+class MaxTree
+{
+    /**number of entries*/
+    private int size;
+
+    /**number of leaves. The smallest power of two that is at least size*/
+    private int leaves;
+
+    /**highest value below each node. Node 1 is the root and the leaves start at leaves*/
+    private double[] treeMax;
+
+    /**number of entries tied for the highest value below each node*/
+    private int[] treeCount;
+
+    /**
+     * Constructor that takes the number of entries. Every entry starts left out
+     * @param size number of entries
+     */
+    MaxTree(int size)
+    {
+        this.size = size;
+        leaves = 1;
+        while(leaves < size)
+        {
+            leaves *= 2;
+        }
+        treeMax = new double[2*leaves];
+        treeCount = new int[2*leaves];
+        Arrays.fill(treeMax, Double.NEGATIVE_INFINITY);
+    }
+
+    int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the value of an entry
+     * @param i index of the entry
+     * @return the value of the entry. Negative infinity if it is left out
+     */
+    double get(int i)
+    {
+        return treeMax[leaves + i];
+    }
+
+    /**
+     * Sets the value of an entry and updates the nodes above it
+     * @param i index of the entry
+     * @param value new value of the entry. Negative infinity to leave it out
+     */
+    void set(int i, double value)
+    {
+        int node = leaves + i;
+        setLeaf(node, value);
+        for(node /= 2; node > 0; node /= 2)
+        {
+            combine(node);
+        }
+    }
+
+    /**
+     * Sets the value of an entry without updating the nodes above it. Used to
+     * fill the whole tree at once, after which rebuild must be called
+     * @param i index of the entry
+     * @param value new value of the entry. Negative infinity to leave it out
+     */
+    void setWithoutUpdate(int i, double value)
+    {
+        setLeaf(leaves + i, value);
+    }
+
+    /**
+     * Updates every node from the entries
+     */
+    void rebuild()
+    {
+        for(int node = leaves - 1; node > 0; node--)
+        {
+            combine(node);
+        }
+    }
+
+    /**
+     * Chooses the entry with the highest value. If several are tied for the
+     * highest value then one of them is chosen randomly
+     * @param rng random number generator used to break ties
+     * @return the index of the chosen entry. -1 if every entry is left out
+     */
+    int pickBest(Random rng)
+    {
+        if(treeCount[1] == 0)
+        {
+            return -1;
+        }
+
+        int remaining = rng.nextInt(treeCount[1]);
+        int node = 1;
+        while(node < leaves)
+        {
+            int left = 2*node;
+            if(treeMax[left] == treeMax[node])
+            {
+                if(remaining < treeCount[left])
+                {
+                    node = left;
+                    continue;
+                }
+                remaining -= treeCount[left];
+            }
+            node = left + 1;
+        }
+        return node - leaves;
+    }
+
+    /**
+     * Gets every entry tied for the highest value. Only the branches of the tree
+     * that lead to the highest value are visited
+     * @param maxCount most entries to return
+     * @return the indexes of the tied entries in order. Empty if every entry is
+     * left out. null if more than maxCount entries are tied
+     */
+    int[] getBest(int maxCount)
+    {
+        if(treeCount[1] > maxCount)
+        {
+            return null;
+        }
+
+        int[] best = new int[treeCount[1]];
+        int found = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        if(treeCount[1] > 0)
+        {
+            stack[top++] = 1;
+        }
+        while(top > 0)
+        {
+            int node = stack[--top];
+            if(node >= leaves)
+            {
+                best[found++] = node - leaves;
+                continue;
+            }
+            //push the right child first so entries come out in order
+            for(int child = 2*node + 1; child >= 2*node; child--)
+            {
+                if(treeCount[child] > 0 && treeMax[child] == treeMax[1])
+                {
+                    stack[top++] = child;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method to set a leaf's value and count
+     * @param node the leaf's node
+     * @param value the new value
+     */
+    private void setLeaf(int node, double value)
+    {
+        treeMax[node] = value;
+        treeCount[node] = value == Double.NEGATIVE_INFINITY ? 0 : 1;
+    }
+
+    /**
+     * Helper method to set a node's max and tie count from its children
+     * @param node the node to update
+     */
+    private void combine(int node)
+    {
+        int left = 2*node;
+        int right = left + 1;
+        if(treeMax[left] > treeMax[right])
+        {
+            treeMax[node] = treeMax[left];
+            treeCount[node] = treeCount[left];
+        }
+        else if(treeMax[left] < treeMax[right])
+        {
+            treeMax[node] = treeMax[right];
+            treeCount[node] = treeCount[right];
+        }
+        else
+        {
+            treeMax[node] = treeMax[left];
+            treeCount[node] = treeCount[left] + treeCount[right];
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package battleship.data;
+
+import battleship.exceptions.InvalidBoardSizeException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class chooses where to shoot by sampling whole enemy fleets. Counting every
+placement like DensityTargeter does treats each ship on its own, and on large
+boards with many ships that takes a lot of work after every shot. Instead, this
+class has the FleetGenerator draw a number of random fleets of the enemy ships
+still afloat that match the board: no ship covers a miss or a sunken ship, and
+every hit is covered by a ship. Each sampled fleet adds one to the count of every
+untouched cell it covers, and the cell covered most often is the one most likely
+to contain a ship.
+
+Sampling stops after the configured number of fleets or when the time budget
+runs out, whichever comes first. The fleets are split into tasks that run on the
+fork join pool of the calling thread (or the common pool), each with its own
+random number generator, fleet generator and counts, and the counts are added
+together as the tasks finish.
+
+A RecommendationSearch can also be refined in the background. The fleets are
+split into work units on the common pool that add their counts to the search as
+each one finishes, so the search always has the best cell from the fleets
+sampled so far. Tasks only use copies of the board's bitsets, never the board
+itself.
+*/
+class MonteCarloTargeter
+{
+    /**number of fleets sampled for each shot unless set otherwise*/
+    static final int DEFAULT_SAMPLES = 2000;
+
+    /**most time spent sampling for each shot unless set otherwise, in milliseconds*/
+    static final long DEFAULT_TIME_BUDGET = 50;
+
+    /**most fleets sampled by a single task before it is split in half*/
+    private static final int SAMPLES_PER_TASK = 250;
+
+    /**fewest fleets sampled in the background before their counts are trusted
+    over the quick answer of a search*/
+    static final int MIN_SAMPLES = 500;
+
+    /**number of fleets a task samples between checks of the time budget*/
+    private static final int SAMPLES_PER_CHECK = 16;
+
+    /**width and height of the board*/
+    private int width;
+    private int height;
+
+    /**number of fleets to sample for each shot*/
+    private int numSamples;
+
+    /**most time to spend sampling for each shot, in nanoseconds*/
+    private long timeBudget;
+
+    /**number of sampled fleets covering each cell from the last calculation*/
+    private int[] counts;
+
+    /**number of fleets sampled in the last calculation*/
+    private int lastSamples;
+
+    /**
+     * Constructor that takes the size of the board
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     */
+    MonteCarloTargeter(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        numSamples = DEFAULT_SAMPLES;
+        timeBudget = DEFAULT_TIME_BUDGET*1000000L;
+        counts = new int[width*height];
+        lastSamples = 0;
+    }
+
+    /**
+     * sets the number of fleets sampled for each shot
+     * @param numSamples number of fleets. At least 1
+     * @return true if the number was valid and was set
+     */
+    boolean setNumSamples(int numSamples)
+    {
+        if(numSamples < 1)
+        {
+            return false;
+        }
+        this.numSamples = numSamples;
+        return true;
+    }
+
+    int getNumSamples()
+    {
+        return numSamples;
+    }
+
+    /**
+     * sets the most time spent sampling for each shot
+     * @param millis time budget in milliseconds. At least 1
+     * @return true if the budget was valid and was set
+     */
+    boolean setTimeBudget(long millis)
+    {
+        if(millis < 1)
+        {
+            return false;
+        }
+        timeBudget = millis*1000000L;
+        return true;
+    }
+
+    /**
+     * gets the most time spent sampling for each shot
+     * @return the time budget in milliseconds
+     */
+    long getTimeBudget()
+    {
+        return timeBudget / 1000000L;
+    }
+
+    /**
+     * Gets the number of fleets that were sampled for the last shot. Less than
+     * the number of samples if the time budget ran out
+     * @return the number of fleets sampled
+     */
+    int getLastSamples()
+    {
+        return lastSamples;
+    }
+
+    /**
+     * Samples fleets that match the board and chooses the untouched cell covered
+     * by the most of them. If several are tied then one of them is chosen randomly
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @param rng random number generator used to seed the samplers and break ties
+     * @return the index (y*width + x) of the chosen cell. -1 if no fleet could be sampled
+     */
+    int pickBest(Board board, int[] shipsAfloat, Random rng)
+    {
+        calculate(board, shipsAfloat, rng);
+        if(lastSamples == 0)
+        {
+            return -1;
+        }
+
+        int highestValue = -1;
+        int numTies = 0;
+        int best = -1;
+        for(int i = 0; i < counts.length; i++)
+        {
+            if(board.getCellState(i) != Cell.UNTOUCHED)
+            {
+                continue;
+            }
+            if(counts[i] > highestValue)
+            {
+                highestValue = counts[i];
+                numTies = 1;
+                best = i;
+            }
+            //keep each tied cell with equal probability
+            else if(counts[i] == highestValue && rng.nextInt(++numTies) == 0)
+            {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the count for a cell from the last calculation
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the number of sampled fleets covering the cell
+     */
+    int getCount(int x, int y)
+    {
+        return counts[y*width + x];
+    }
+
+    /**
+     * Samples fleets that match the board and counts how often each cell is covered
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @param rng random number generator used to seed the samplers
+     */
+    void calculate(Board board, int[] shipsAfloat, Random rng)
+    {
+        SampleTask task = newTask(board, shipsAfloat, numSamples, rng.nextLong(), null);
+        Tally tally = task.lengths.length == 0 ? new Tally(counts.length) : task.invoke();
+        counts = tally.counts;
+        lastSamples = tally.samples;
+    }
+
+    /**
+     * Starts sampling fleets in the background to refine a search. Returns
+     * right away. Sampling stops when the search is cancelled, the time budget
+     * runs out or every fleet has been sampled
+     * @param search the search to add the counts to
+     * @param board the board of shots that have been fired at the enemy. Can
+     * change as soon as this method returns
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @param rng random number generator used to seed the samplers
+     */
+    void refine(RecommendationSearch search, Board board, int[] shipsAfloat, Random rng)
+    {
+        int numUnits = (numSamples + SAMPLES_PER_TASK - 1) / SAMPLES_PER_TASK;
+        SampleTask[] units = new SampleTask[numUnits];
+        for(int u = 0; u < numUnits; u++)
+        {
+            int unitSamples = Math.min(SAMPLES_PER_TASK, numSamples - u*SAMPLES_PER_TASK);
+            units[u] = newTask(board, shipsAfloat, unitSamples, rng.nextLong(), search);
+        }
+        if(numUnits == 0 || units[0].lengths.length == 0)
+        {
+            return;
+        }
+
+        search.addUnits(numUnits);
+        for(SampleTask unit : units)
+        {
+            ForkJoinPool.commonPool().execute(unit);
+        }
+    }
+
+    /**
+     * Helper method to make a task with copies of the board's bitsets
+     * @param board the board of shots that have been fired at the enemy
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @param samples number of fleets the task samples
+     * @param seed seed for the task's random number generator
+     * @param search the search to add the counts to. null to return them instead
+     * @return the new task
+     */
+    private SampleTask newTask(Board board, int[] shipsAfloat, int samples, long seed, RecommendationSearch search)
+    {
+        int numWords = board.getNumWords();
+        long[] blocked = new long[numWords];
+        long[] hits = new long[numWords];
+        for(int w = 0; w < numWords; w++)
+        {
+            blocked[w] = board.getWord(Cell.MISS, w) | board.getWord(Cell.SUNKEN_SHIP, w);
+            hits[w] = board.getWord(Cell.HIT, w);
+        }
+        long deadline = System.nanoTime() + timeBudget;
+        return new SampleTask(getLengths(shipsAfloat), blocked, hits, samples, seed, deadline, search);
+    }
+
+    /**
+     * Helper method to list the lengths of the ships still afloat, longest first
+     * since they have the fewest legal placements
+     * @param shipsAfloat number of enemy ships still afloat indexed by ship length
+     * @return the length of each ship afloat
+     */
+    private static int[] getLengths(int[] shipsAfloat)
+    {
+        int numShips = 0;
+        for(int length = PlacementIndex.MIN_SHIP_LENGTH; length < shipsAfloat.length; length++)
+        {
+            numShips += Math.max(shipsAfloat[length], 0);
+        }
+        int[] lengths = new int[numShips];
+        int next = 0;
+        for(int length = shipsAfloat.length - 1; length >= PlacementIndex.MIN_SHIP_LENGTH; length--)
+        {
+            for(int i = 0; i < shipsAfloat[length]; i++)
+            {
+                lengths[next++] = length;
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Counts collected by a single task
+     */
+    private static class Tally
+    {
+        private int[] counts;
+        private int samples;
+
+        private Tally(int numCells)
+        {
+            counts = new int[numCells];
+            samples = 0;
+        }
+
+        private void merge(Tally other)
+        {
+            for(int i = 0; i < counts.length; i++)
+            {
+                counts[i] += other.counts[i];
+            }
+            samples += other.samples;
+        }
+    }
+
+    /**
+     * Samples a number of fleets, splitting them in half until there are few
+     * enough to sample on one thread. Tasks refining a search are already small
+     * enough and add their counts to the search when they finish
+     */
+    private class SampleTask extends RecursiveTask<Tally>
+    {
+        private int[] lengths;
+        private long[] blocked;
+        private long[] hits;
+        private int samples;
+        private long seed;
+        private long deadline;
+        private RecommendationSearch search;
+
+        private SampleTask(int[] lengths, long[] blocked, long[] hits, int samples, long seed, long deadline,
+                           RecommendationSearch search)
+        {
+            this.lengths = lengths;
+            this.blocked = blocked;
+            this.hits = hits;
+            this.samples = samples;
+            this.seed = seed;
+            this.deadline = deadline;
+            this.search = search;
+        }
+
+        @Override
+        protected Tally compute()
+        {
+            if(samples > SAMPLES_PER_TASK)
+            {
+                Random split = new Random(seed);
+                int half = samples >>> 1;
+                SampleTask left = new SampleTask(lengths, blocked, hits, half, split.nextLong(), deadline, search);
+                left.fork();
+                Tally tally = new SampleTask(lengths, blocked, hits, samples - half, split.nextLong(), deadline,
+                                             search).compute();
+                tally.merge(left.join());
+                return tally;
+            }
+
+            Tally tally = sample();
+            if(search != null)
+            {
+                search.finishUnit(tally.counts, tally.samples);
+            }
+            return tally;
+        }
+
+        /**
+         * Helper method to sample this task's fleets on the current thread
+         * @return the counts of the sampled fleets
+         */
+        private Tally sample()
+        {
+            Tally tally = new Tally(width*height);
+            FleetGenerator generator = null;
+            try
+            {
+                generator = new FleetGenerator(width, height, lengths, new Random(seed));
+            }
+            catch(InvalidBoardSizeException e) //should never happen since the board already has this size
+            {
+                System.out.println(e.getMessage());
+                System.exit(1);
+            }
+
+            int[] fleet = new int[lengths.length];
+            for(int i = 0; i < samples; i++)
+            {
+                if(i % SAMPLES_PER_CHECK == 0 && (System.nanoTime() > deadline ||
+                                                  (search != null && search.isCancelled())))
+                {
+                    break;
+                }
+                if(!generator.nextFleet(fleet, 0, blocked, hits))
+                {
+                    continue;
+                }
+                for(int s = 0; s < lengths.length; s++)
+                {
+                    int step = FleetGenerator.isHorizontal(fleet[s]) ? 1 : width;
+                    for(int c = 0, cell = FleetGenerator.getStartCell(fleet[s]); c < lengths[s]; c++, cell += step)
+                    {
+                        //cells that have been shot at are left out
+                        if(((blocked[cell >>> 6] | hits[cell >>> 6]) & (1L << cell)) == 0)
+                        {
+                            tally.counts[cell]++;
+                        }
+                    }
+                }
+                tally.samples++;
+            }
+            return tally;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package battleship.data;
+
+import battleship.exceptions.InvalidBoardSizeException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class holds the cells the computer chooses between for the opening
+positions of a game on the standard board with the classic fleet, so the first
+shots of every game don't need to be scored. Each position is stored as the
+Zobrist hash of the shooter's board along with every cell tied for the best
+score, and the player picks one of them randomly just like when it scores the
+position itself.
+
+The book is generated offline by running the targeting modes on every position
+the computer can reach in its first few shots: starting from an empty board,
+each of the tied cells is shot at and both a miss and a hit are followed, up to
+the depth of the book. Positions where a ship has been sunk are not included
+since those games leave the book anyway. Run main to generate the book and save
+it as opening.book next to this class. The default book is loaded from the
+classpath the first time it is needed. If it is missing, the book is empty and
+every position is scored normally.
+
+File format (big endian):
+int     MAGIC
+int     VERSION
+int     width, int height, int depth
+int     largest ship length, then the number of ships of each length from 0 to it
+int     number of targeting modes, then for each mode:
+    int     targeting mode
+    int     number of positions
+    long[]  hash of each position, in increasing order
+    int[]   number of candidates of each position
+    byte[]  the candidates of every position one after another, each the cell
+            index (y*width + x) as an unsigned byte
+*/
+public final class OpeningBook
+{
+    /**first int of every book file*/
+    private static final int MAGIC = 0x42534F42;
+
+    /**version of the file format*/
+    private static final int VERSION = 1;
+
+    /**name of the default book resource, next to this class*/
+    private static final String RESOURCE = "opening.book";
+
+    /**depth used by main when none is given*/
+    private static final int DEFAULT_DEPTH = 6;
+
+    /**most cells that can be tied for a position for it to be stored. Positions
+    with more ties are not followed any deeper*/
+    private static final int MAX_CANDIDATES = RecommendationCache.MAX_CANDIDATES;
+
+    /**a book with no positions, used if the default book can't be loaded*/
+    private static final OpeningBook EMPTY = new OpeningBook(Board.DEFAULT_SIZE, Board.DEFAULT_SIZE, 0,
+                                                             FleetSpec.CLASSIC.getShipsPerLength(), new int[0],
+                                                             new long[0][], new int[0][], new byte[0][]);
+
+    /**width and height of the board the book was generated for*/
+    private final int width;
+    private final int height;
+
+    /**number of shots the book covers. Positions with fewer cells shot at than this can be in the book*/
+    private final int depth;
+
+    /**number of enemy ships afloat indexed by length in every position of the book*/
+    private final int[] shipsAfloat;
+
+    /**targeting modes the book has positions for*/
+    private final int[] modes;
+
+    /**hash of each position indexed by mode then position, sorted*/
+    private final long[][] hashes;
+
+    /**where each position's candidates start in cells, indexed by mode then
+    position. Has one more entry than there are positions*/
+    private final int[][] offsets;
+
+    /**candidates of every position one after another, indexed by mode*/
+    private final byte[][] cells;
+
+    /**
+     * Holder for the default book so it is only loaded the first time it is used
+     */
+    private static final class DefaultBook
+    {
+        private static final OpeningBook INSTANCE = loadDefault();
+    }
+
+    /**
+     * Full constructor
+     * @param width width of the board
+     * @param height height of the board
+     * @param depth number of shots the book covers
+     * @param shipsAfloat number of enemy ships of each length
+     * @param modes targeting modes in the book
+     * @param hashes sorted hashes for each mode
+     * @param offsets start of each position's candidates for each mode
+     * @param cells candidates for each mode
+     */
+    private OpeningBook(int width, int height, int depth, int[] shipsAfloat, int[] modes, long[][] hashes,
+                        int[][] offsets, byte[][] cells)
+    {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.shipsAfloat = shipsAfloat;
+        this.modes = modes;
+        this.hashes = hashes;
+        this.offsets = offsets;
+        this.cells = cells;
+    }
+
+    /**
+     * Gets the book that ships with the game, loading it the first time it is needed
+     * @return the default book. Empty if it couldn't be loaded
+     */
+    public static OpeningBook getDefault()
+    {
+        return DefaultBook.INSTANCE;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Checks if a position could be in the book: the board is the right size,
+     * fewer cells have been shot at than the depth of the book, and every enemy
+     * ship is still afloat
+     * @param board the shooter's board
+     * @param maxShipLength length of the largest enemy ship afloat
+     * @param afloat number of enemy ships afloat indexed by length
+     * @return true if the book should be looked at before scoring the position
+     */
+    public boolean covers(Board board, int maxShipLength, int[] afloat)
+    {
+        return board.getNumTouchedCells() < depth && board.getWidth() == width && board.getHeight() == height &&
+               maxShipLength == shipsAfloat.length - 1 && Arrays.equals(afloat, shipsAfloat);
+    }
+
+    /**
+     * Gets the number of positions in the book
+     * @return the number of positions for every targeting mode
+     */
+    public int getNumPositions()
+    {
+        int total = 0;
+        for(long[] modeHashes : hashes)
+        {
+            total += modeHashes.length;
+        }
+        return total;
+    }
+
+    /**
+     * Looks up the best cells for a position
+     * @param targetingMode targeting mode of the shooter
+     * @param boardHash Zobrist hash of the shooter's board
+     * @return a new array of the cells tied for the best score. null if the
+     * position isn't in the book
+     */
+    public int[] get(int targetingMode, long boardHash)
+    {
+        for(int m = 0; m < modes.length; m++)
+        {
+            if(modes[m] != targetingMode)
+            {
+                continue;
+            }
+            int position = Arrays.binarySearch(hashes[m], boardHash);
+            if(position < 0)
+            {
+                return null;
+            }
+            int start = offsets[m][position];
+            int[] candidates = new int[offsets[m][position + 1] - start];
+            for(int i = 0; i < candidates.length; i++)
+            {
+                candidates[i] = cells[m][start + i] & 0xFF;
+            }
+            return candidates;
+        }
+        return null;
+    }
+
+    /**
+     * Generates a book for the standard board and the classic fleet by scoring
+     * every position the targeting modes can reach
+     * @param depth number of shots to cover
+     * @param targetingModes targeting modes to generate positions for
+     * @return the new book
+     */
+    public static OpeningBook generate(int depth, int[] targetingModes)
+    {
+        int numModes = targetingModes.length;
+        long[][] bookHashes = new long[numModes][];
+        int[][] bookOffsets = new int[numModes][];
+        byte[][] bookCells = new byte[numModes][];
+
+        for(int m = 0; m < numModes; m++)
+        {
+            Generator generator = new Generator(targetingModes[m], depth);
+            generator.explore(new Board(), 0);
+
+            //sort the positions by hash so they can be binary searched
+            Integer[] order = new Integer[generator.positionHashes.size()];
+            for(int i = 0; i < order.length; i++)
+            {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(generator.positionHashes.get(a), generator.positionHashes.get(b)));
+
+            long[] sortedHashes = new long[order.length];
+            int[] sortedOffsets = new int[order.length + 1];
+            int totalCells = 0;
+            for(int[] candidates : generator.positionCells)
+            {
+                totalCells += candidates.length;
+            }
+            byte[] sortedCells = new byte[totalCells];
+            int next = 0;
+            for(int i = 0; i < order.length; i++)
+            {
+                sortedHashes[i] = generator.positionHashes.get(order[i]);
+                sortedOffsets[i] = next;
+                for(int cell : generator.positionCells.get(order[i]))
+                {
+                    sortedCells[next++] = (byte) cell;
+                }
+            }
+            sortedOffsets[order.length] = next;
+
+            bookHashes[m] = sortedHashes;
+            bookOffsets[m] = sortedOffsets;
+            bookCells[m] = sortedCells;
+        }
+
+        return new OpeningBook(Board.DEFAULT_SIZE, Board.DEFAULT_SIZE, depth, FleetSpec.CLASSIC.getShipsPerLength(),
+                               targetingModes.clone(), bookHashes, bookOffsets, bookCells);
+    }
+
+    /**
+     * Writes the book in the binary format described above
+     * @param out the stream to write to. Not closed
+     * @throws IOException thrown if the stream can't be written
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(width);
+        data.writeInt(height);
+        data.writeInt(depth);
+        data.writeInt(shipsAfloat.length - 1);
+        for(int count : shipsAfloat)
+        {
+            data.writeInt(count);
+        }
+        data.writeInt(modes.length);
+        for(int m = 0; m < modes.length; m++)
+        {
+            int numPositions = hashes[m].length;
+            data.writeInt(modes[m]);
+            data.writeInt(numPositions);
+            for(int i = 0; i < numPositions; i++)
+            {
+                data.writeLong(hashes[m][i]);
+            }
+            for(int i = 0; i < numPositions; i++)
+            {
+                data.writeInt(offsets[m][i + 1] - offsets[m][i]);
+            }
+            data.write(cells[m]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a book written by write
+     * @param in the stream to read from. Not closed
+     * @return the book
+     * @throws IOException thrown if the stream can't be read or is not a book
+     */
+    public static OpeningBook read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if(data.readInt() != MAGIC || data.readInt() != VERSION)
+        {
+            throw new IOException("Not an opening book or an unsupported version");
+        }
+        int width = data.readInt();
+        int height = data.readInt();
+        int depth = data.readInt();
+        int maxShipLength = data.readInt();
+        if(width*height > 256 || maxShipLength < 0 || maxShipLength > Ship.MAX_SIZE)
+        {
+            throw new IOException("Opening book is for an unsupported board");
+        }
+        int[] shipsAfloat = new int[maxShipLength + 1];
+        for(int i = 0; i < shipsAfloat.length; i++)
+        {
+            shipsAfloat[i] = data.readInt();
+        }
+        int numModes = data.readInt();
+        if(numModes < 0)
+        {
+            throw new IOException("Opening book has an invalid number of targeting modes");
+        }
+
+        int[] modes = new int[numModes];
+        long[][] hashes = new long[numModes][];
+        int[][] offsets = new int[numModes][];
+        byte[][] cells = new byte[numModes][];
+        for(int m = 0; m < numModes; m++)
+        {
+            modes[m] = data.readInt();
+            int numPositions = data.readInt();
+            hashes[m] = new long[numPositions];
+            for(int i = 0; i < numPositions; i++)
+            {
+                hashes[m][i] = data.readLong();
+            }
+            offsets[m] = new int[numPositions + 1];
+            for(int i = 0; i < numPositions; i++)
+            {
+                offsets[m][i + 1] = offsets[m][i] + data.readInt();
+            }
+            cells[m] = new byte[offsets[m][numPositions]];
+            data.readFully(cells[m]);
+        }
+        return new OpeningBook(width, height, depth, shipsAfloat, modes, hashes, offsets, cells);
+    }
+
+    /**
+     * Generates the default book and saves it
+     * @param args depth of the book and the file to write it to. Both are optional
+     * @throws IOException thrown if the file can't be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        String path = args.length > 1 ? args[1] : RESOURCE;
+
+        long start = System.nanoTime();
+        OpeningBook book = generate(depth, new int[]{Player.TARGETING_HEURISTIC, Player.TARGETING_DENSITY});
+        try(OutputStream out = new FileOutputStream(path))
+        {
+            book.write(out);
+        }
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", book.getNumPositions(), path,
+                          (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Helper method to load the book that ships with the game
+     * @return the book. Empty if it is missing or can't be read
+     */
+    private static OpeningBook loadDefault()
+    {
+        try(InputStream in = OpeningBook.class.getResourceAsStream(RESOURCE))
+        {
+            if(in == null)
+            {
+                return EMPTY;
+            }
+            return read(in);
+        }
+        catch(IOException e)
+        {
+            System.out.println("Could not load the opening book: " + e.getMessage());
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Explores the positions reachable by one targeting mode
+     */
+    private static final class Generator
+    {
+        private final int targetingMode;
+        private final int depth;
+        private final int[] shipsAfloat;
+        private final int maxShipLength;
+        private final DensityTargeter density;
+        private final HashSet<Long> visited;
+        private final ArrayList<Long> positionHashes;
+        private final ArrayList<int[]> positionCells;
+
+        private Generator(int targetingMode, int depth)
+        {
+            this.targetingMode = targetingMode;
+            this.depth = depth;
+            shipsAfloat = FleetSpec.CLASSIC.getShipsPerLength();
+            maxShipLength = FleetSpec.CLASSIC.getMaxLength();
+            density = new DensityTargeter();
+            visited = new HashSet<>();
+            positionHashes = new ArrayList<>();
+            positionCells = new ArrayList<>();
+        }
+
+        /**
+         * Scores a position, stores it, and follows a miss and a hit on each
+         * of its best cells
+         * @param board the position. Changed while exploring but put back before returning
+         * @param shots number of cells shot at in the position
+         */
+        private void explore(Board board, int shots)
+        {
+            if(shots >= depth || !visited.add(board.getZobristHash()))
+            {
+                return;
+            }
+
+            int[] candidates = score(board);
+            if(candidates == null || candidates.length == 0)
+            {
+                return;
+            }
+            positionHashes.add(board.getZobristHash());
+            positionCells.add(candidates);
+
+            for(int cell : candidates)
+            {
+                board.setCellState(cell, Cell.MISS);
+                explore(board, shots + 1);
+                board.setCellState(cell, Cell.HIT);
+                explore(board, shots + 1);
+                board.setCellState(cell, Cell.UNTOUCHED);
+            }
+        }
+
+        /**
+         * Helper method to find the cells tied for the best score in a position
+         * @param board the position
+         * @return the tied cells. null if there are more than MAX_CANDIDATES
+         */
+        private int[] score(Board board)
+        {
+            if(targetingMode == Player.TARGETING_DENSITY)
+            {
+                density.calculate(board, shipsAfloat);
+                return density.getBestCells(board, MAX_CANDIDATES);
+            }
+            HeuristicScorer scorer = new HeuristicScorer(board);
+            scorer.recalculateAll(maxShipLength);
+            return scorer.getBestCells(MAX_CANDIDATES);
+        }
+    }
+}
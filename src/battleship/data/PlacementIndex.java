@@ -0,0 +1,196 @@
+package battleship.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class is a table of every legal position a ship can be placed in on an
+empty board. For each ship length that fits on the board it stores every horizontal and
+vertical placement as a bitmask using the same layout as the board's masks
+(bit i is the cell with index y*width + x, split across a low and high long),
+along with the cell each placement starts on. Since each placement is two
+longs, tables can only be built for boards with at most 128 cells. Larger
+boards have too many placements to keep in a table and are handled without one.
+
+Tables are built once and never change, so a single instance is shared by
+every player using the same board size. Callers check placements with mask
+operations, for example a placement overlaps a set of cells if:
+    (placementLo & maskLo) != 0 || (placementHi & maskHi) != 0
+
+Placements for a length are numbered with all horizontal placements first
+(row by row, left to right) followed by all vertical placements.
+*/
+final class PlacementIndex
+{
+    /**smallest ship length that placements are built for*/
+    static final int MIN_SHIP_LENGTH = Ship.MIN_SIZE;
+
+    /**number of cells in the low word of each mask*/
+    private static final int WORD_BITS = 64;
+
+    /**most cells a board can have to get a table*/
+    static final int MAX_CELLS = 2*WORD_BITS;
+
+    /**the table for the standard 10x10 board*/
+    static final PlacementIndex CLASSIC = new PlacementIndex(Board.DEFAULT_SIZE, Board.DEFAULT_SIZE);
+
+    /**tables for other board sizes that have been built so far, keyed by width*Board.MAX_SIZE + height*/
+    private static final ConcurrentHashMap<Integer, PlacementIndex> TABLES = new ConcurrentHashMap<>();
+
+    /**width and height of the board that this table was built for*/
+    private final int width;
+    private final int height;
+
+    /**longest ship that fits on the board*/
+    private final int maxLength;
+
+    /**low and high words of every placement, indexed by ship length*/
+    private final long[][] masksLo;
+    private final long[][] masksHi;
+
+    /**index of the top left cell of every placement, indexed by ship length*/
+    private final int[][] starts;
+
+    /**
+     * Gets the table for a board size, building it the first time it is needed
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     * @return the shared table. null if the board has more than MAX_CELLS cells
+     */
+    static PlacementIndex forSize(int width, int height)
+    {
+        if(width == Board.DEFAULT_SIZE && height == Board.DEFAULT_SIZE)
+        {
+            return CLASSIC;
+        }
+        if(width*height > MAX_CELLS)
+        {
+            return null;
+        }
+        return TABLES.computeIfAbsent(width*Board.MAX_SIZE + height, key -> new PlacementIndex(width, height));
+    }
+
+    /**
+     * Builds the table for a board
+     * @param width number of columns on the board
+     * @param height number of rows on the board. Must have at most MAX_CELLS cells
+     */
+    private PlacementIndex(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        maxLength = Math.max(width, height);
+        masksLo = new long[maxLength + 1][];
+        masksHi = new long[maxLength + 1][];
+        starts = new int[maxLength + 1][];
+
+        for(int length = MIN_SHIP_LENGTH; length <= maxLength; length++)
+        {
+            int count = getNumHorizontal(length) + width*Math.max(height - length + 1, 0);
+            long[] lo = new long[count];
+            long[] hi = new long[count];
+            int[] start = new int[count];
+
+            int p = 0;
+            for(int horizontal = 1; horizontal >= 0; horizontal--)
+            {
+                int rows = horizontal == 1 ? height : height - length + 1;
+                int columns = horizontal == 1 ? width - length + 1 : width;
+                if(rows <= 0 || columns <= 0)
+                {
+                    continue;
+                }
+                int step = horizontal == 1 ? 1 : width;
+                for(int y = 0; y < rows; y++)
+                {
+                    for(int x = 0; x < columns; x++)
+                    {
+                        start[p] = y*width + x;
+                        for(int i = 0; i < length; i++)
+                        {
+                            int cell = start[p] + i*step;
+                            if(cell < WORD_BITS)
+                            {
+                                lo[p] |= 1L << cell;
+                            }
+                            else
+                            {
+                                hi[p] |= 1L << (cell - WORD_BITS);
+                            }
+                        }
+                        p++;
+                    }
+                }
+            }
+
+            masksLo[length] = lo;
+            masksHi[length] = hi;
+            starts[length] = start;
+        }
+    }
+
+    /**
+     * Gets the longest ship that the table has placements for
+     * @return the larger of the width and height
+     */
+    int getMaxLength()
+    {
+        return maxLength;
+    }
+
+    /**
+     * Gets the low words of every placement for a ship length. The returned
+     * array is shared and must not be modified
+     * @param length length of the ship. Must be from MIN_SHIP_LENGTH to getMaxLength() inclusive
+     * @return the low word of each placement's mask
+     */
+    long[] getMasksLo(int length)
+    {
+        return masksLo[length];
+    }
+
+    /**
+     * Gets the high words of every placement for a ship length. The returned
+     * array is shared and must not be modified
+     * @param length length of the ship. Must be from MIN_SHIP_LENGTH to getMaxLength() inclusive
+     * @return the high word of each placement's mask
+     */
+    long[] getMasksHi(int length)
+    {
+        return masksHi[length];
+    }
+
+    /**
+     * Gets the index of the top left cell of a placement
+     * @param length length of the ship. Must be from MIN_SHIP_LENGTH to getMaxLength() inclusive
+     * @param placement number of the placement
+     * @return the index (y*width + x) of the placement's first cell
+     */
+    int getStart(int length, int placement)
+    {
+        return starts[length][placement];
+    }
+
+    /**
+     * Checks if a placement runs left to right
+     * @param length length of the ship. Must be from MIN_SHIP_LENGTH to getMaxLength() inclusive
+     * @param placement number of the placement
+     * @return true if the placement is horizontal, false if it is vertical
+     */
+    boolean isHorizontal(int length, int placement)
+    {
+        return placement < getNumHorizontal(length);
+    }
+
+    /**
+     * Helper method to count the horizontal placements for a ship length
+     * @param length length of the ship
+     * @return the number of horizontal placements. 0 if the ship is wider than the board
+     */
+    private int getNumHorizontal(int length)
+    {
+        return height*Math.max(width - length + 1, 0);
+    }
+}
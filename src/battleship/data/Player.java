@@ -1,11 +1,12 @@
 package battleship.data;
 
+import battleship.exceptions.InvalidBoardSizeException;
 import battleship.exceptions.InvalidShipSizeException;
 import battleship.exceptions.InvalidShipPlacementException;
 import battleship.exceptions.InvalidCoordinateException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
 Programmer: Steven Siddall
@@ -16,7 +17,14 @@ board, ships, etc. A player's board is the board that records all previous
 shots that THIS PLAYER has fired AT THE OTHER PLAYER. This player object's ships,
 however, are this player's own ships in the game.
 
-Ship Identifiers:
+The ships that make up a player's fleet come from a FleetSpec, and each ship is
+identified by its slot in the fleet. A player also uses its own fleet to keep
+track of which enemy ships are still afloat, so both players in a game must use
+the same fleet. Where ships are on the board is kept in a single array with the
+slot of the ship on each cell, which is used both to check new ships for
+overlaps and to resolve shots.
+
+Slots in the classic fleet:
 0: Carrier. Takes up 5 cells
 1: Battleship. Takes up 4 cells
 2: Cruiser. Takes up 3 cells
@@ -26,6 +34,13 @@ Ship Identifiers:
 
 public class Player
 {
+    /**targeting mode that scores cells based on the hits and untouched cells around them*/
+    public static final int TARGETING_HEURISTIC = 0;
+    /**targeting mode that counts every legal placement of the enemy ships still afloat*/
+    public static final int TARGETING_DENSITY = 1;
+    /**targeting mode that samples random enemy fleets matching the board. Meant for large boards*/
+    public static final int TARGETING_MONTE_CARLO = 2;
+
     /**the name of the player*/
     private String name;
     
@@ -45,103 +60,144 @@ public class Player
     during this turn.*/
     private int remainingShots;
 
-    /**this player's ships*/
-    private Ship patrolBoat;
-    private Ship submarine;
-    private Ship cruiser;
-    private Ship battleship;
-    private Ship carrier;
+    /**the ships that make up this player's fleet*/
+    private FleetSpec fleet;
 
-    /**array containing references to each ship*/
+    /**this player's ships, indexed by slot in the fleet. null if a ship has been removed*/
     private Ship[] ships;
 
-    //constants for point calculation formulas:
-    //***MOST OF THESE ARE NOT CURRENTLY BEING USED***
-
-    /**denominator value for 'a' term of point formula for hit cells*/
-    private static double A_DENOM = 1.9;
-    /**denominator value for 'b' term of point formula for hit cells*/
-    private static double B_DENOM = 10;
-    /**value for 'c' term of point formula for hit cells*/
-    private static double BASE_VALUE_HIT = 20.0;
-    /**base value for point formula for untouched cells*/
-    private static double BASE_VALUE_UNTOUCHED = 5;
-    /**multiplier for diminishing point value of untouched cells*/
-    private static double DIMINISHING_MULTIPLIER = 1;
-
-    //constants for identifying ships
+    /**index in ships of the ship on each cell, indexed by cell index (y*width + x).
+    NO_SHIP if the cell is empty*/
+    private byte[] shipAt;
+
+    /**true for each cell of a ship that has already been hit*/
+    private boolean[] shipCellHit;
+
+    /**number of cells of each ship that have not been hit yet, indexed the same as ships*/
+    private int[] remainingHits;
+
+    /**calculates the point values for each cell on this player's board*/
+    private HeuristicScorer scorer;
+
+    /**counts ship placements for each cell when using TARGETING_DENSITY*/
+    private DensityTargeter density;
+
+    /**samples enemy fleets when using TARGETING_MONTE_CARLO. Created the first time it is needed*/
+    private MonteCarloTargeter monteCarlo;
+
+    /**how this player chooses its recommendations. TARGETING_HEURISTIC by default*/
+    private int targetingMode;
+
+    /**number of opponent ships still afloat indexed by ship length*/
+    private int[] opponentShipsAfloat;
+
+    /**generates random fleets for generateRandomShipPlacement. Created the first time it is needed*/
+    private FleetGenerator fleetGenerator;
+
+    /**reused for each fleet written by the fleet generator*/
+    private int[] randomFleet;
+
+    /**used for breaking ties between recommendations and placing ships randomly*/
+    private Random rng;
+
+    /**remembers the best cells for positions that have already been scored. null to always score*/
+    private RecommendationCache recommendationCache;
+
+    /**true if the opening book is looked at before scoring a position*/
+    private boolean useOpeningBook;
+
+    /**records of the shots at this player made with applyShot that can still be
+    undone, UNDO_FIELDS ints per shot with the newest last. Created the first
+    time it is needed and only grown if a search goes deeper than every cell*/
+    private int[] undoStack;
+
+    /**the player that took each shot in undoStack*/
+    private Player[] undoShooters;
+
+    /**number of shots in undoStack*/
+    private int numUndoShots;
+
+    //slots of the ships in the classic fleet
     private static final int CARRIER = 0;
     private static final int BATTLESHIP = 1;
     private static final int CRUISER = 2;
     private static final int SUBMARINE = 3;
     private static final int PATROL_BOAT = 4;
 
+    /**value in shipAt for cells that have no ship*/
+    private static final byte NO_SHIP = -1;
+
+    //fields of each shot in undoStack
+    private static final int UNDO_TARGET = 0;
+    private static final int UNDO_RESULT = 1;
+    private static final int UNDO_BOARD_STATE = 2;
+    private static final int UNDO_SHIP_CELL_STATE = 3;
+    private static final int UNDO_SHIP_CELL_HIT = 4;
+    private static final int UNDO_SHIP_AFLOAT = 5;
+    private static final int UNDO_NUM_SHOTS = 6;
+    private static final int UNDO_MAX_LENGTH = 7;
+    private static final int UNDO_AFLOAT_CHANGED = 8;
+    private static final int UNDO_FIELDS = 9;
+
+    /**number of times generateRandomShipPlacement tries to place a fleet before giving up*/
+    private static final int MAX_FLEET_ATTEMPTS = 100;
+
 
     /**
      * Default constructor. Warning: Each ship's cells will not be initialized
-     * @throws InvalidCoordinateException
      */
     public Player()
     {
-        name = "No Name";
-        board = new Board();
-        nextRecommendation = new Coord();
-        maxOpponentShipLength = 0;
-
-        patrolBoat = new Ship(2,true,"Patrol Boat");
-        submarine = new Ship(3,true,"Submarine");
-        cruiser = new Ship(3,true,"Cruiser");
-        battleship = new Ship(4,true,"Battleship");
-        carrier = new Ship(5,true,"Carrier");
-
-        ships = new Ship[5];
-        ships[0] = patrolBoat;
-        ships[1] = submarine;
-        ships[2] = cruiser;
-        ships[3] = battleship;
-        ships[4] = carrier;
-
-        updateRecommendation();
+        setUp("No Name", new Board(), FleetSpec.CLASSIC);
     }
 
     /**
      * constructor that takes a name for the player. Warning: Each ship's cells will not be initialized
      * @param name the name of the player
-     * @throws InvalidCoordinateException
      */
     public Player(String name)
     {
-        if(name == null)
-        {
-            this.name = "No Name";
-        }
-        else
-        {
-            this.name = name;
-        }
-        board = new Board();
-        nextRecommendation = new Coord();
-        maxOpponentShipLength = 5;
-        remainingShots = 1;
-
-        patrolBoat = new Ship(2,true,"Patrol Boat");
-        submarine = new Ship(3,true,"Submarine");
-        cruiser = new Ship(3,true,"Cruiser");
-        battleship = new Ship(4,true,"Battleship");
-        carrier = new Ship(5,true,"Carrier");
+        setUp(name, new Board(), FleetSpec.CLASSIC);
+    }
 
-        ships = new Ship[5];
-        ships[0] = patrolBoat;
-        ships[1] = submarine;
-        ships[2] = cruiser;
-        ships[3] = battleship;
-        ships[4] = carrier;
+    /**
+     * constructor that takes a name for the player and the size of the board.
+     * Warning: Each ship's cells will not be initialized. Both players in a game
+     * must use the same size
+     * @param name the name of the player
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     * @throws InvalidBoardSizeException thrown if the board size is not supported
+     */
+    public Player(String name, int width, int height) throws InvalidBoardSizeException
+    {
+        setUp(name, new Board(width, height), FleetSpec.CLASSIC);
+    }
 
-        updateRecommendation();
+    /**
+     * constructor that takes a name for the player, the size of the board and
+     * the fleet. Warning: Each ship's cells will not be initialized. Both players
+     * in a game must use the same size and fleet
+     * @param name the name of the player
+     * @param width number of columns on the board
+     * @param height number of rows on the board
+     * @param fleet the ships that make up this player's fleet
+     * @throws InvalidBoardSizeException thrown if the board size is not supported
+     * @throws InvalidShipSizeException thrown if the fleet doesn't fit on the board
+     */
+    public Player(String name, int width, int height, FleetSpec fleet) throws InvalidBoardSizeException,
+                                                                              InvalidShipSizeException
+    {
+        if(fleet == null || !fleet.fitsOn(width, height))
+        {
+            throw new InvalidShipSizeException("Invalid Fleet: the fleet doesn't fit on a " +
+                                               width + "x" + height + " board");
+        }
+        setUp(name, new Board(width, height), fleet);
     }
 
     /**
-     * Constructor that takes cell arrays for each ship and a player name
+     * Constructor that takes cell arrays for each ship of the classic fleet and a player name
      * @param name name of the player
      * @param patrolBoatCells cell array representing the patrol boat's cells
      * @param submarineCells cell array representing the sub's cells
@@ -157,6 +213,18 @@ public class Player
                                Cell[] battleshipCells,
                                Cell[] carrierCells) throws InvalidShipSizeException,
                                                            InvalidShipPlacementException
+    {
+        setUp(name, new Board(), FleetSpec.CLASSIC);
+        initializeShips(patrolBoatCells, submarineCells, cruiserCells, battleshipCells, carrierCells);
+    }
+
+    /**
+     * Helper method for the constructors to set up a new player
+     * @param name the name of the player
+     * @param board the board this player records its shots on
+     * @param fleet the ships that make up this player's fleet
+     */
+    private void setUp(String name, Board board, FleetSpec fleet)
     {
         if(name == null)
         {
@@ -166,37 +234,41 @@ public class Player
         {
             this.name = name;
         }
-        board = new Board();
-        nextRecommendation = new Coord();
-        maxOpponentShipLength = 5;
+        this.board = board;
+        this.fleet = fleet;
+        scorer = new HeuristicScorer(board);
+        density = new DensityTargeter(board.getWidth(), board.getHeight());
+        targetingMode = TARGETING_HEURISTIC;
+        opponentShipsAfloat = fleet.getShipsPerLength();
+        rng = new Random();
+        recommendationCache = RecommendationCache.SHARED;
+        useOpeningBook = true;
+        undoStack = null;
+        undoShooters = null;
+        numUndoShots = 0;
+        nextRecommendation = Coord.ORIGIN;
+        maxOpponentShipLength = fleet.getMaxLength();
         remainingShots = 1;
 
-        patrolBoat = new Ship(2,true,"Patrol Boat");
-        submarine = new Ship(3,true,"Submarine");
-        cruiser = new Ship(3,true,"Cruiser");
-        battleship = new Ship(4,true,"Battleship");
-        carrier = new Ship(5,true,"Carrier");
+        ships = new Ship[fleet.getNumShips()];
+        for(int slot = 0; slot < ships.length; slot++)
+        {
+            ships[slot] = new Ship(fleet.getLength(slot), true, fleet.getName(slot));
+        }
+        indexAllShips();
 
-        initializeShips(patrolBoatCells, submarineCells, cruiserCells, battleshipCells, carrierCells);
-        
-        ships = new Ship[5];
-        ships[0] = patrolBoat;
-        ships[1] = submarine;
-        ships[2] = cruiser;
-        ships[3] = battleship;
-        ships[4] = carrier;
-        
         updateRecommendation();
     }
 
     /**
-     * Master method for initializing all of the ships' coordinates
+     * Master method for initializing all of the ships' coordinates when using the classic fleet
      * @param patrolBoatCells cells that the patrol boat is on
      * @param submarineCells cells that the submarine is on
      * @param cruiserCells cells that the cruiser is on
      * @param battleshipCells cells that the battleship is on
      * @param carrierCells cells that the carrier is on
      * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * @throws InvalidShipPlacementException thrown if any of the ships overlap or are off the board
      */
     public void initializeShips(Cell[] patrolBoatCells,
                                 Cell[] submarineCells,
@@ -205,202 +277,106 @@ public class Player
                                 Cell[] carrierCells) throws InvalidShipSizeException,
                                                             InvalidShipPlacementException
     {
-        this.initializePatrolBoat(patrolBoatCells);
-        this.initializeSubmarine(submarineCells);
-        this.initializeCruiser(cruiserCells);
-        this.initializeBattleship(battleshipCells);
-        this.initializeCarrier(carrierCells);
+        initializeShip(PATROL_BOAT, patrolBoatCells);
+        initializeShip(SUBMARINE, submarineCells);
+        initializeShip(CRUISER, cruiserCells);
+        initializeShip(BATTLESHIP, battleshipCells);
+        initializeShip(CARRIER, carrierCells);
     }
 
     /**
-     * Method for individually setting the cells of the patrol boat
-     * @param cells cells that the patrol boat is on
-     * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * Method for individually setting the cells of a ship. The cells are checked
+     * against the other ships with the cell to ship index, so placing a ship
+     * takes the same time no matter how many ships are in the fleet
+     * @param slot slot of the ship in the fleet
+     * @param cells cells that the ship is on. null to remove the ship from the board
+     * @throws InvalidShipSizeException throws if the cell array is an incorrect size
+     * @throws InvalidShipPlacementException thrown if the ship overlaps another
+     * ship, is off the board, or the fleet has no ship in that slot
      */
-    public void initializePatrolBoat(Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
+    public void initializeShip(int slot, Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
     {
+        if(slot < 0 || slot >= ships.length)
+        {
+            throw new InvalidShipPlacementException("Invalid Ship Placement: the fleet has no ship " + slot);
+        }
         if(cells == null)
         {
-            patrolBoat = null;
-            ships[0] = null;
+            unindexShip(slot);
+            ships[slot] = null;
             return;
         }
+        checkOnBoard(cells);
+
         //check if these cells overlap with the other ships
         for(int i = 0; i < cells.length; i++)
         {
-            if(carrier != null && carrier.hasCell(cells[i].getCoords()))
+            int other = shipAt[board.getIndex(cells[i].getXCoord(), cells[i].getYCoord())];
+            if(other != NO_SHIP && other != slot)
             {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with carrier");
-            }
-            else if(battleship != null && battleship.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with battleship");
-            }
-            else if(cruiser != null && cruiser.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with cruiser");
-            }
-            else if(submarine != null && submarine.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with submarine");
+                throw new InvalidShipPlacementException("Invalid Ship Placement: " + fleet.getName(slot) +
+                                                        " overlaps with " + fleet.getName(other));
             }
         }
-        patrolBoat = new Ship(2,true,"Patrol Boat");
-        patrolBoat.setCells(cells);
-        ships[0] = patrolBoat;
+        Ship ship = new Ship(fleet.getLength(slot), true, fleet.getName(slot));
+        ship.setCells(cells);
+        unindexShip(slot);
+        ships[slot] = ship;
+        indexShip(slot);
     }
 
     /**
-     * Method for individually setting the cells of the submarine
-     * @param cells cells that the submarine is on
-     * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * Finds the slot of one of this player's ships by its name
+     * @param name the name of the ship
+     * @return the ship's slot in the fleet. -1 if the fleet has no ship with that name
      */
-    public void initializeSubmarine(Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
+    public int findShip(String name)
     {
-        if(cells == null)
-        {
-            submarine = null;
-            ships[1] = null;
-            return;
-        }
-        
-        //check if these cells overlap with the other ships
-        for(int i = 0; i < cells.length; i++)
-        {
-            if(carrier != null && carrier.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with carrier");
-            }
-            else if(battleship != null && battleship.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with battleship");
-            }
-            else if(cruiser != null && cruiser.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with cruiser");
-            }
-            else if(patrolBoat != null && patrolBoat.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with patrol boat");
-            }
-        }
-        submarine = new Ship(3,true,"Submarine");
-        submarine.setCells(cells);
-        ships[1] = submarine;
+        return fleet.findShip(name);
     }
 
     /**
-     * Method for individually setting the cells of the cruiser
-     * @param cells cells that the cruiser is on
-     * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * getter for the ships that make up this player's fleet
+     * @return the fleet. FleetSpecs can't be changed so this is not a copy
      */
-    public void initializeCruiser(Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
+    public FleetSpec getFleet()
     {
-        if(cells == null)
-        {
-            cruiser = null;
-            ships[2] = null;
-            return;
-        }
-        //check if these cells overlap with the other ships
-        for(int i = 0; i < cells.length; i++)
-        {
-            if(carrier != null && carrier.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with carrier");
-            }
-            else if(battleship != null && battleship.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with battleship");
-            }
-            else if(patrolBoat != null && patrolBoat.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with patrol boat");
-            }
-            else if(submarine != null && submarine.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with submarine");
-            }
-        }
-        cruiser = new Ship(3,true,"Cruiser");
-        cruiser.setCells(cells);
-        ships[2] = cruiser;
+        return fleet;
     }
 
     /**
-     * Method for individually setting the cells of the battleship
-     * @param cells cells that the battleship is on
-     * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * Helper method to make sure every cell of a ship is on this player's board
+     * @param cells the cells of the ship being placed
+     * @throws InvalidShipPlacementException thrown if a cell is off the board
      */
-    public void initializeBattleship(Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
+    private void checkOnBoard(Cell[] cells) throws InvalidShipPlacementException
     {
-        if(cells == null)
-        {
-            battleship = null;
-            ships[3] = null;
-            return;
-        }
-        //check if these cells overlap with the other ships
         for(int i = 0; i < cells.length; i++)
         {
-            if(carrier != null && carrier.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with carrier");
-            }
-            else if(patrolBoat != null && patrolBoat.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with patrol boat");
-            }
-            else if(cruiser != null && cruiser.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with cruiser");
-            }
-            else if(submarine != null && submarine.hasCell(cells[i].getCoords()))
+            if(cells[i] != null && board.getIndex(cells[i].getXCoord(), cells[i].getYCoord()) < 0)
             {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with submarine");
+                throw new InvalidShipPlacementException("Invalid Ship Placement: " +
+                                                        cells[i].getCoords().bShipCoords() + " is off the board");
             }
         }
-        battleship = new Ship(4,true,"Battleship");
-        battleship.setCells(cells);
-        ships[3] = battleship;
     }
 
     /**
-     * Method for individually setting the cells of the carrier
-     * @param cells cells that the carrier is on
-     * @throws InvalidShipSizeException throws if any of the cell arrays are an incorrect size
+     * Clears this player's board and everything it learned about the opponent so
+     * the same player can be reused for another game. Ships keep their current
+     * cells and hits, so generateRandomShipPlacement or initializeShips must be
+     * called before the next game
      */
-    public void initializeCarrier(Cell[] cells) throws InvalidShipSizeException, InvalidShipPlacementException
+    public void reset()
     {
-        if(cells == null)
-        {
-            carrier = null;
-            ships[4] = null;
-            return;
-        }
-        //check if these cells overlap with the other ships
-        for(int i = 0; i < cells.length; i++)
-        {
-            if(patrolBoat != null && patrolBoat.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with patrol boat");
-            }
-            else if(battleship != null && battleship.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with battleship");
-            }
-            else if(cruiser != null && cruiser.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with cruiser");
-            }
-            else if(submarine != null && submarine.hasCell(cells[i].getCoords()))
-            {
-                throw new InvalidShipPlacementException("Invalid Ship Placement: patrol boat overlaps with submarine");
-            }
-        }
-        carrier = new Ship(5,true,"Carrier");
-        carrier.setCells(cells);
-        ships[4] = carrier;
+        board.clear();
+        scorer.reset();
+        density.reset();
+        nextRecommendation = Coord.ORIGIN;
+        maxOpponentShipLength = fleet.getMaxLength();
+        remainingShots = 1;
+        opponentShipsAfloat = fleet.getShipsPerLength();
+        clearUndoShots();
     }
 
     /**
@@ -428,11 +404,93 @@ public class Player
         return name;
     }
     
+    /**
+     * getter for a copy of this player's board. Callers that only need to read
+     * cells or follow changes should use getBoardView or addBoardListener,
+     * which don't copy the board
+     * @return a deep copy of the board
+     */
     public Board getBoard()
     {
         return new Board(board);
     }
 
+    /**
+     * Gets a read-only view of this player's board that changes along with it.
+     * The view is the board itself and must not be cast back to a Board
+     * @return the board as a view. Use snapshot on it for a copy that won't change
+     */
+    public BoardView getBoardView()
+    {
+        return board;
+    }
+
+    /**
+     * Gets the state of a cell on this player's board without copying the board
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @return the state of the cell from 0 to 3 inclusive. -1 if the coordinates are out of bounds
+     */
+    public int getBoardCellState(int x, int y)
+    {
+        return board.getCellState(x, y);
+    }
+
+    /**
+     * Adds a listener that is told about every change to this player's board.
+     * Cells of a sunken ship come with the ship that was sunk
+     * @param listener the listener to add
+     * @return true if the listener was not null and was added
+     */
+    public boolean addBoardListener(BoardListener listener)
+    {
+        return board.addBoardListener(listener);
+    }
+
+    /**
+     * Removes a listener that was added to this player's board
+     * @param listener the listener to remove
+     * @return true if the listener was found and removed
+     */
+    public boolean removeBoardListener(BoardListener listener)
+    {
+        return board.removeBoardListener(listener);
+    }
+
+    /**
+     * getter for the number of columns on this player's board
+     * @return the width of the board
+     */
+    public int getBoardWidth()
+    {
+        return board.getWidth();
+    }
+
+    /**
+     * getter for the number of rows on this player's board
+     * @return the height of the board
+     */
+    public int getBoardHeight()
+    {
+        return board.getHeight();
+    }
+
+    /**
+     * Converts a coordinate to the index of its cell on this player's board
+     * @param coord the coordinate to convert
+     * @return the index of the cell, y*width + x
+     * @throws InvalidCoordinateException thrown if the coordinate is not on the board
+     */
+    public int getCellIndex(Coord coord) throws InvalidCoordinateException
+    {
+        int index = board.getIndex(coord.getX(), coord.getY());
+        if(index < 0)
+        {
+            throw new InvalidCoordinateException("Invalid Coordinate: " + coord.bShipCoords() + " is off the board");
+        }
+        return index;
+    }
+
     /**
      * setter for the size of the largest opponent ship that is still afloat
      * @param newLength the number of cells that the largest enemy ship occupies
@@ -449,6 +507,21 @@ public class Player
         }
     }
 
+    /**
+     * Gets the number of opponent ships of a given length that this player
+     * hasn't sunk yet
+     * @param length the length of the ships
+     * @return the number of opponent ships of that length still afloat. 0 if the fleet has none
+     */
+    public int getOpponentShipsAfloat(int length)
+    {
+        if(length < 0 || length >= opponentShipsAfloat.length)
+        {
+            return 0;
+        }
+        return opponentShipsAfloat[length];
+    }
+
     /**
      * figures out the size of the largest ship that this player still has afloat
      * @return the number of cells that this player's largest floating ship occupies
@@ -456,11 +529,11 @@ public class Player
     public int getMaxShipLength()
     {
         int maxLength = 0;
-        for(int i = 0; i < 5; i++)
+        for(int i = 0; i < ships.length; i++)
         {
-            if(ships[i].isAfloat())
+            if(ships[i] != null && ships[i].isAfloat())
             {
-                maxLength = ships[i].getSize();
+                maxLength = Math.max(maxLength, ships[i].getSize());
             }
         }
         return maxLength;
@@ -469,192 +542,386 @@ public class Player
     /**
      * Checks point values for each cell on the board and chooses the next recommendation
      * based on the one with the highest value. If there are several tied for the highest
-     * value, it chooses one of them randomly
+     * value, it chooses one of them randomly. The point values come from the heuristic,
+     * from counting ship placements or from sampling enemy fleets depending on the
+     * targeting mode. Sampled recommendations are never cached. If the
+     * position is in the opening book, or the same opening position has been
+     * scored before, the tied cells come from the book or the recommendation
+     * cache instead
      */
     public void updateRecommendation()
     {
-        recalculateTotalPoints();
+        int best;
+        int[] candidates = null;
+        RecommendationCache cache = recommendationCache;
+        if(board.getNumTouchedCells() > RecommendationCache.MAX_TOUCHED_CELLS ||
+           targetingMode == TARGETING_MONTE_CARLO)
+        {
+            cache = null;
+        }
+        if(useOpeningBook && OpeningBook.getDefault().covers(board, maxOpponentShipLength, opponentShipsAfloat))
+        {
+            candidates = OpeningBook.getDefault().get(targetingMode, board.getZobristHash());
+        }
+        if(candidates == null && cache != null)
+        {
+            candidates = cache.get(board.getZobristHash(), targetingMode,
+                                                 maxOpponentShipLength, opponentShipsAfloat);
+        }
 
-        double highestValue = 0;
-        ArrayList<Coord> tiedValues = new ArrayList<Coord>();
+        if(candidates != null)
+        {
+            best = candidates[rng.nextInt(candidates.length)];
+        }
+        else if(targetingMode == TARGETING_MONTE_CARLO)
+        {
+            best = getMonteCarlo().pickBest(board, opponentShipsAfloat, rng);
 
-        for(int y = 0; y < 10; y++)
+            //no fleet could be sampled in time so count placements instead
+            if(best < 0)
+            {
+                best = density.pickBest(board, opponentShipsAfloat, rng);
+            }
+        }
+        else if(targetingMode == TARGETING_DENSITY)
         {
-            for(int x = 0; x < 10; x++)
+            best = density.pickBest(board, opponentShipsAfloat, rng);
+            if(cache != null && best >= 0)
             {
-                try
-                {
-                    if(board.getCell(x, y).getValue() > highestValue)
-                    {
-                        highestValue = board.getCell(x, y).getValue();
-                        tiedValues.clear();
-                        tiedValues.add(new Coord(x,y));
-                    }
-                    else if(board.getCell(x, y).getValue() == highestValue)
-                    {
-                        tiedValues.add(new Coord(x,y));
-                    }
-                }
-                catch(InvalidCoordinateException e) //should never happen since coord values are hardcoded
-                {
-                    System.out.println("Coordinate Error in update recommendation method.");
-                    System.exit(1);
-                }
+                cache.put(board.getZobristHash(), targetingMode, maxOpponentShipLength, opponentShipsAfloat,
+                          density.getBestCells(board, RecommendationCache.MAX_CANDIDATES));
             }
         }
+        else
+        {
+            recalculateTotalPoints();
 
-        //randomly choose a recommendation from the list of tied highest cells
-        int numTies = tiedValues.size();
-        Random rng = new Random();
-        int randomIndex = rng.nextInt(numTies);
-        nextRecommendation = new Coord(tiedValues.get(randomIndex));
-    }
+            //the scorer keeps track of the highest value cells and randomly breaks ties
+            best = scorer.pickBest(rng);
+            if(cache != null && best >= 0)
+            {
+                cache.put(board.getZobristHash(), targetingMode, maxOpponentShipLength, opponentShipsAfloat,
+                          scorer.getBestCells(RecommendationCache.MAX_CANDIDATES));
+            }
+        }
 
-    /**
-     * gets the next coordinate that the computer recommends to shoot at.
-     * updateRecommendation should be called before this method
-     * @return the recommended coordinate to shoot at
-     */
-    public Coord getRecommendation()
-    {
-        return nextRecommendation;
+        if(best < 0)
+        {
+            nextRecommendation = Coord.ORIGIN;
+            return;
+        }
+
+        try
+        {
+            nextRecommendation = Coord.valueOf(best % board.getWidth(), best / board.getWidth());
+        }
+        catch(InvalidCoordinateException e) //should never happen since targeting only returns cells on the board
+        {
+            System.out.println("Coordinate Error in update recommendation method.");
+            System.exit(1);
+        }
     }
 
     /**
-     * checks if all of this player's ships have been sunk
-     * @return true if all ships have been sunk, false otherwise
+     * Starts working out the next recommendation and returns without waiting
+     * for the slow part. The search starts with an answer from the quick
+     * calculations. When using TARGETING_MONTE_CARLO that answer comes from
+     * counting placements, and enemy fleets are sampled in the background to
+     * improve it until the search is cancelled or finishes. The other targeting
+     * modes are quick enough that their answer is final right away. The
+     * recommendation returned by getRecommendation is not changed
+     * @return the search, which has the best shot found so far
      */
-    public boolean allShipsSunk()
+    public RecommendationSearch startRecommendation()
     {
-        for(int i = 0; i < 5; i++)
+        if(targetingMode != TARGETING_MONTE_CARLO)
+        {
+            Coord previous = nextRecommendation;
+            updateRecommendation();
+            RecommendationSearch search = new RecommendationSearch(nextRecommendation);
+            nextRecommendation = previous;
+            return search;
+        }
+
+        int first = density.pickBest(board, opponentShipsAfloat, rng);
+        Coord firstCoord = Coord.ORIGIN;
+        if(first >= 0)
         {
-            if(ships[i].isAfloat())
+            try
             {
-                return false;
+                firstCoord = Coord.valueOfIndex(first, board.getWidth());
+            }
+            catch(InvalidCoordinateException e) //should never happen since targeting only returns cells on the board
+            {
+                System.out.println("Coordinate Error in start recommendation method.");
+                System.exit(1);
             }
         }
 
-        return true;
+        MonteCarloTargeter sampler = getMonteCarlo();
+        RecommendationSearch search = new RecommendationSearch(board, firstCoord, new Random(rng.nextLong()),
+                                                               Math.min(MonteCarloTargeter.MIN_SAMPLES,
+                                                                        sampler.getNumSamples()));
+        sampler.refine(search, board, opponentShipsAfloat, rng);
+        return search;
     }
 
-    /***
-     * checks if this player has a ship based on its unique ID
-     * @param id the ID number of the ship in question
-     * @return true if this player has a ship with that ID, false otherwise
+    /**
+     * Chooses the next recommendation within a time limit. Works the same as
+     * updateRecommendation, except that targeting modes that keep improving
+     * with more time are stopped when the time runs out and the best shot found
+     * by then is used
+     * @param timeBudget most time to spend in milliseconds
      */
-    public boolean hasShip(int id)
+    public void updateRecommendation(long timeBudget)
     {
-        for(int i = 0; i < 5; i++)
+        RecommendationSearch search = startRecommendation();
+        try
         {
-            if(ships[i].getID() == id)
-            {
-                return true;
-            }
+            search.await(Math.max(timeBudget, 0), TimeUnit.MILLISECONDS);
         }
-
-        return false;
+        catch(InterruptedException e)
+        {
+            //use the best shot so far and let the caller see the interrupt
+            Thread.currentThread().interrupt();
+        }
+        search.cancel();
+        nextRecommendation = search.getBest();
     }
 
     /**
-    Determines if the player has a ship at a specific coordinate
-    @param coord the location where we are checking for a ship
-    @return the ship at the specified coordinate. null if no ship was found
-    */
-    public Ship getShipAt(Coord coord)
+     * sets how this player chooses its recommendations
+     * @param mode TARGETING_HEURISTIC, TARGETING_DENSITY or TARGETING_MONTE_CARLO
+     * @return true if the mode was valid and was set
+     */
+    public boolean setTargetingMode(int mode)
     {
-        for(int i = 0; i < ships.length; i++)
+        if(mode != TARGETING_HEURISTIC && mode != TARGETING_DENSITY && mode != TARGETING_MONTE_CARLO)
         {
-            if(ships[i] != null && ships[i].hasCell(coord))
-            {
-                return ships[i];
-            }
+            return false;
         }
-        
-        return null;
+        targetingMode = mode;
+        return true;
     }
-    
+
     /**
-     * returns a deep copy of the ship with the given ID number
-     * @param id the ID of the ship to return
-     * @return the ship with the given ID, null if this player doesn't have that ship
+     * sets the cache of positions that have already been scored. Players share
+     * RecommendationCache.SHARED by default
+     * @param cache the cache to use. null to score every position from scratch
      */
-    public Ship getShip(int id)
+    public void setRecommendationCache(RecommendationCache cache)
     {
-        for(int i = 0; i < 5; i++)
-        {
-            if(ships[i].getID() == id)
-            {
-                return new Ship(ships[i]);
-            }
-        }
+        recommendationCache = cache;
+    }
 
-            return null;
+    /**
+     * sets whether the opening book that ships with the game is looked at
+     * before scoring a position. It is used by default
+     * @param useOpeningBook true to use the opening book
+     */
+    public void setUseOpeningBook(boolean useOpeningBook)
+    {
+        this.useOpeningBook = useOpeningBook;
     }
-    
+
     /**
-    gets an array of deep copies of all ships
-    @return an array of deep copies of all ships
-    */
-    public Ship[] getAllShips()
+     * checks whether the opening book is looked at before scoring a position
+     * @return true if the opening book is used
+     */
+    public boolean isUsingOpeningBook()
     {
-        Ship[] shipsCopy = {getCarrier(),
-                            getBattleship(),
-                            getCruiser(),
-                            getSubmarine(),
-                            getPatrolBoat()};
-        return shipsCopy;
+        return useOpeningBook;
+    }
+
+    /**
+     * gets the cache of positions that have already been scored
+     * @return the cache. null if this player scores every position from scratch
+     */
+    public RecommendationCache getRecommendationCache()
+    {
+        return recommendationCache;
     }
 
-    public Ship getCarrier()
+    /**
+     * sets the number of enemy fleets sampled for each shot when using
+     * TARGETING_MONTE_CARLO
+     * @param numSamples number of fleets. At least 1
+     * @return true if the number was valid and was set
+     */
+    public boolean setMonteCarloSamples(int numSamples)
     {
-        return new Ship(carrier);
+        return getMonteCarlo().setNumSamples(numSamples);
     }
 
-    public Ship getBattleship()
+    /**
+     * gets the number of enemy fleets sampled for each shot when using TARGETING_MONTE_CARLO
+     * @return the number of fleets
+     */
+    public int getMonteCarloSamples()
     {
-        return new Ship(battleship);
+        return getMonteCarlo().getNumSamples();
     }
 
-    public Ship getCruiser()
+    /**
+     * sets the most time spent sampling enemy fleets for each shot when using
+     * TARGETING_MONTE_CARLO. Sampling stops early once the time runs out
+     * @param millis time budget in milliseconds. At least 1
+     * @return true if the budget was valid and was set
+     */
+    public boolean setMonteCarloTimeBudget(long millis)
     {
-        return new Ship(cruiser);
+        return getMonteCarlo().setTimeBudget(millis);
     }
 
-    public Ship getSubmarine()
+    /**
+     * gets the most time spent sampling enemy fleets for each shot when using TARGETING_MONTE_CARLO
+     * @return the time budget in milliseconds
+     */
+    public long getMonteCarloTimeBudget()
     {
-        return new Ship(submarine);
+        return getMonteCarlo().getTimeBudget();
     }
 
-    public Ship getPatrolBoat()
+    /**
+     * gets how this player chooses its recommendations
+     * @return TARGETING_HEURISTIC, TARGETING_DENSITY or TARGETING_MONTE_CARLO
+     */
+    public int getTargetingMode()
     {
-        return new Ship(patrolBoat);
+        return targetingMode;
     }
-    
-    public int getNumShipsAfloat()
+
+    /**
+     * gets the next coordinate that the computer recommends to shoot at.
+     * updateRecommendation should be called before this method
+     * @return the recommended coordinate to shoot at
+     */
+    public Coord getRecommendation()
     {
-        int numShipsAfloat = 0;
-        
-        if(carrier.isAfloat())
+        return nextRecommendation;
+    }
+
+    /**
+     * checks if all of this player's ships have been sunk
+     * @return true if all ships have been sunk, false otherwise
+     */
+    public boolean allShipsSunk()
+    {
+        for(int i = 0; i < ships.length; i++)
         {
-            numShipsAfloat++;
-        }   
-        if(battleship.isAfloat())
+            if(ships[i] != null && ships[i].isAfloat())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /***
+     * checks if this player has a ship based on its unique ID
+     * @param id the ID number of the ship in question
+     * @return true if this player has a ship with that ID, false otherwise
+     */
+    public boolean hasShip(int id)
+    {
+        for(int i = 0; i < ships.length; i++)
         {
-            numShipsAfloat++;
+            if(ships[i] != null && ships[i].getID() == id)
+            {
+                return true;
+            }
         }
-        if(cruiser.isAfloat())
+
+        return false;
+    }
+
+    /**
+    Determines if the player has a ship at a specific coordinate
+    @param coord the location where we are checking for a ship
+    @return the ship at the specified coordinate. null if no ship was found
+    */
+    public Ship getShipAt(Coord coord)
+    {
+        if(coord == null)
         {
-            numShipsAfloat++;
+            return null;
         }
-        if(submarine.isAfloat())
+        return getShipAt(board.getIndex(coord.getX(), coord.getY()));
+    }
+
+    /**
+    Determines if the player has a ship at a specific cell index
+    @param index index of the cell where we are checking for a ship, y*width + x
+    @return the ship on that cell. null if no ship was found or the index is not on the board
+    */
+    public Ship getShipAt(int index)
+    {
+        if(!board.isValidIndex(index) || shipAt[index] == NO_SHIP)
+        {
+            return null;
+        }
+        return ships[shipAt[index]];
+    }
+    
+    /**
+     * returns a deep copy of the ship with the given ID number
+     * @param id the ID of the ship to return
+     * @return the ship with the given ID, null if this player doesn't have that ship
+     */
+    public Ship getShip(int id)
+    {
+        for(int i = 0; i < ships.length; i++)
         {
-            numShipsAfloat++;
+            if(ships[i] != null && ships[i].getID() == id)
+            {
+                return new Ship(ships[i]);
+            }
         }
-        if(patrolBoat.isAfloat())
+
+            return null;
+    }
+    
+    /**
+     * Gets a read-only view of one of this player's ships that changes as the ship
+     * is hit. The view is the ship itself and must not be cast back to a Ship
+     * @param slot the ship's slot in the fleet
+     * @return the ship as a view. null if the slot is not in the fleet or its ship was removed
+     */
+    public ShipView getShipView(int slot)
+    {
+        if(slot < 0 || slot >= ships.length)
         {
-            numShipsAfloat++;
+            return null;
+        }
+        return ships[slot];
+    }
+
+    /**
+    gets an array of deep copies of all ships
+    @return an array of deep copies of all ships in slot order. Ships that
+    have been removed are copied as empty ships
+    */
+    public Ship[] getAllShips()
+    {
+        Ship[] shipsCopy = new Ship[ships.length];
+        for(int i = 0; i < ships.length; i++)
+        {
+            shipsCopy[i] = new Ship(ships[i]);
+        }
+        return shipsCopy;
+    }
+
+    public int getNumShipsAfloat()
+    {
+        int numShipsAfloat = 0;
+        for(int i = 0; i < ships.length; i++)
+        {
+            if(ships[i] != null && ships[i].isAfloat())
+            {
+                numShipsAfloat++;
+            }
         }
-        
         return numShipsAfloat;
     }
 
@@ -667,65 +934,272 @@ public class Player
      */
     public FireResult fireAt(Coord coords, Player shooter) throws InvalidCoordinateException
     {
+        return fireAt(getCellIndex(coords), shooter);
+    }
+
+    /**
+     * checks if a shot at the given cell index hits any of this player's ships
+     * and builds a FireResult object reflecting the results. The index is checked
+     * once here and used directly from then on. Shots at this player made with
+     * applyShot can't be undone after this, since undoing them would put back the
+     * wrong state, so they are forgotten
+     * @param target index of the cell being shot at, y*width + x
+     * @param shooter the player taking the shot
+     * @return a FireResult object representing the result of the shot
+     * @throws InvalidCoordinateException thrown if the index is not on the board
+     */
+    public FireResult fireAt(int target, Player shooter) throws InvalidCoordinateException
+    {
+        board.checkIndex(target);
+        clearUndoShots();
         FireResult result = new FireResult();
-        result.setTarget(new Coord(coords));
-        Cell targetCell = board.getCell(coords.getX(), coords.getY());
+        result.setTarget(target, board.getWidth());
         shooter.setNumShots(shooter.getNumShots() - 1);
         
         //check if shot it a hit
-        for(int i = 0; i < 5; i++)
+        int slot = shipAt[target];
+        if(slot != NO_SHIP)
         {
-            if(ships[i].hitCell(coords.getX(), coords.getY()))
+            Ship ship = ships[slot];
+            boolean wasAfloat = ship.isAfloat();
+            ship.hitCellIndex(target, board.getWidth());
+            if(!shipCellHit[target])
             {
-                if(ships[i].isAfloat())
-                {
-                    result.setResult(FireResult.HIT);
-                }
-                else
-                {
-                    result.setResult(FireResult.SINK);
-                    result.setSunkShip(new Ship(ships[i]));
-                    ships[i].setAfloat(false);
-                }
-                shooter.processFireResult(result);
-                return result;
+                shipCellHit[target] = true;
+                remainingHits[slot]--;
+            }
+
+            if(remainingHits[slot] > 0)
+            {
+                result.setResult(FireResult.HIT);
             }
+            else
+            {
+                result.setResult(FireResult.SINK);
+                result.setSunkShip(new Ship(ship));
+                ship.setAfloat(false);
+            }
+            shooter.processShot(target, result.getResult(), result.getSunkShip(), wasAfloat);
+            return result;
         }
 
         //must have been a miss
         result.setResult(FireResult.MISS);
-        shooter.processFireResult(result);
-        shooter.setMaxOpponentShipLength(this.getMaxShipLength());
+        shooter.processShot(target, FireResult.MISS, null, false);
         return result;
     }
 
     /**
-     * After firing at another player, this method is called with the returned fire result
-     * from the other player. This method changes the board to reflect the results of that shot
-     * @param result
+     * Takes a shot at this player the same way fireAt does, but records what it
+     * changed so undoShot can put both players back exactly as they were. Meant
+     * for searches that try out shots, so no FireResult or ship copies are made
+     * and the records are kept in an array that is reused from shot to shot.
+     * Every shot at this player must come from the same opponent, like in a game.
+     * Calling fireAt on this player forgets every shot that hasn't been undone yet
+     * @param target index of the cell being shot at, y*width + x
+     * @param shooter the player taking the shot
+     * @return the result of the shot. One of the FireResult constants
+     * @throws InvalidCoordinateException thrown if the index is not on the board
      */
-    private void processFireResult(FireResult result)
+    public int applyShot(int target, Player shooter) throws InvalidCoordinateException
     {
-        int status = result.getResult();
+        board.checkIndex(target);
+        if(undoStack == null)
+        {
+            undoStack = new int[board.getNumCells()*UNDO_FIELDS];
+            undoShooters = new Player[board.getNumCells()];
+        }
+        else if(numUndoShots == undoShooters.length)
+        {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length*2);
+            undoShooters = Arrays.copyOf(undoShooters, undoShooters.length*2);
+        }
+        int record = numUndoShots*UNDO_FIELDS;
+        undoShooters[numUndoShots] = shooter;
+        numUndoShots++;
+        undoStack[record + UNDO_TARGET] = target;
+        undoStack[record + UNDO_BOARD_STATE] = shooter.board.getCellState(target);
+        undoStack[record + UNDO_NUM_SHOTS] = shooter.remainingShots;
+        undoStack[record + UNDO_MAX_LENGTH] = shooter.maxOpponentShipLength;
+        shooter.setNumShots(shooter.getNumShots() - 1);
+
+        int result = FireResult.MISS;
+        Ship ship = null;
+        boolean wasAfloat = false;
+        int slot = shipAt[target];
+        if(slot != NO_SHIP)
+        {
+            ship = ships[slot];
+            undoStack[record + UNDO_SHIP_CELL_STATE] = ship.getCellState(ship.findCellIndex(target, board.getWidth()));
+            undoStack[record + UNDO_SHIP_CELL_HIT] = shipCellHit[target] ? 1 : 0;
+            wasAfloat = ship.isAfloat();
+            undoStack[record + UNDO_SHIP_AFLOAT] = wasAfloat ? 1 : 0;
+
+            ship.hitCellIndex(target, board.getWidth());
+            if(!shipCellHit[target])
+            {
+                shipCellHit[target] = true;
+                remainingHits[slot]--;
+            }
+            if(remainingHits[slot] > 0)
+            {
+                result = FireResult.HIT;
+            }
+            else
+            {
+                result = FireResult.SINK;
+                ship.setAfloat(false);
+            }
+        }
+        undoStack[record + UNDO_RESULT] = result;
+        undoStack[record + UNDO_AFLOAT_CHANGED] = shooter.processShot(target, result, ship, wasAfloat) ? 1 : 0;
+        return result;
+    }
+
+    /**
+     * Undoes the last shot at this player made with applyShot, putting the
+     * ships, the shooter's board, the shooter's remaining shots and what the
+     * shooter knows about this player's fleet back the way they were
+     * @return true if there was a shot to undo
+     */
+    public boolean undoShot()
+    {
+        if(numUndoShots == 0)
+        {
+            return false;
+        }
+        numUndoShots--;
+        int record = numUndoShots*UNDO_FIELDS;
+        Player shooter = undoShooters[numUndoShots];
+        undoShooters[numUndoShots] = null;
+        int target = undoStack[record + UNDO_TARGET];
+        int result = undoStack[record + UNDO_RESULT];
+        int slot = shipAt[target];
+
+        if(result == FireResult.SINK && undoStack[record + UNDO_SHIP_AFLOAT] == 1)
+        {
+            //the rest of the ship goes back to being hit
+            Ship ship = ships[slot];
+            for(int i = 0; i < ship.getSize(); i++)
+            {
+                ship.setCellState(i, Cell.HIT);
+                int cell = ship.getCellIndex(i, board.getWidth());
+                if(cell != target)
+                {
+                    shooter.restoreCell(cell, Cell.HIT);
+                }
+            }
+            ship.setAfloat(true);
+        }
+        if(undoStack[record + UNDO_AFLOAT_CHANGED] == 1)
+        {
+            shooter.opponentShipsAfloat[ships[slot].getSize()]++;
+        }
+        shooter.restoreCell(target, undoStack[record + UNDO_BOARD_STATE]);
+
+        if(slot != NO_SHIP)
+        {
+            Ship ship = ships[slot];
+            ship.setCellState(ship.findCellIndex(target, board.getWidth()), undoStack[record + UNDO_SHIP_CELL_STATE]);
+            if(undoStack[record + UNDO_SHIP_CELL_HIT] == 0)
+            {
+                shipCellHit[target] = false;
+                remainingHits[slot]++;
+            }
+        }
+        shooter.remainingShots = undoStack[record + UNDO_NUM_SHOTS];
+        shooter.maxOpponentShipLength = undoStack[record + UNDO_MAX_LENGTH];
+        return true;
+    }
+
+    /**
+     * Gets the number of shots at this player that can still be undone
+     * @return the number of shots made with applyShot and not undone yet
+     */
+    public int getNumUndoShots()
+    {
+        return numUndoShots;
+    }
+
+    /**
+     * Forgets every shot that could be undone, for example when the shots made
+     * by a search are going to be kept
+     */
+    public void clearUndoShots()
+    {
+        if(undoShooters != null)
+        {
+            Arrays.fill(undoShooters, 0, numUndoShots, null);
+        }
+        numUndoShots = 0;
+    }
+
+    /**
+     * Changes the board to reflect the result of a shot this player fired and
+     * updates the point values of the cells around it
+     * @param target index of the cell that was shot at, y*width + x
+     * @param status the result of the shot. One of the FireResult constants
+     * @param sunkShip the ship that was sunk if the result is a sink. Not changed
+     * @param newlySunk true if the ship was afloat before this shot. A shot at a
+     * ship that was already sunk doesn't change the number of enemy ships afloat
+     * @return true if the number of enemy ships afloat went down
+     */
+    private boolean processShot(int target, int status, Ship sunkShip, boolean newlySunk)
+    {
+        int width = board.getWidth();
         switch(status)
         {
-        case FireResult.MISS: 	
-            board.setCellState(result.getTargetX(), result.getTargetY(), Cell.MISS);
+        case FireResult.MISS:
+            board.setCellState(target, Cell.MISS);
+            scorer.cellChanged(board.getX(target), board.getY(target));
+            density.cellChanged(board, board.getX(target), board.getY(target));
             break;
-        case FireResult.HIT:	
-            board.setCellState(result.getTargetX(), result.getTargetY(), Cell.HIT);
+        case FireResult.HIT:
+            board.setCellState(target, Cell.HIT);
+            scorer.cellChanged(board.getX(target), board.getY(target));
+            density.cellChanged(board, board.getX(target), board.getY(target));
             break;
-        case FireResult.SINK:	
-            Ship sunkShip = result.getSunkShip();
-            for(Cell cell: sunkShip.getCells())
+        case FireResult.SINK:
+            for(int i = 0; i < sunkShip.getSize(); i++)
             {
-                board.setCellState(cell.getXCoord(), cell.getYCoord(), Cell.SUNKEN_SHIP);
+                int cell = sunkShip.getCellIndex(i, width);
+                board.setCellState(cell, Cell.SUNKEN_SHIP, sunkShip);
+                scorer.cellChanged(board.getX(cell), board.getY(cell));
+                density.cellChanged(board, board.getX(cell), board.getY(cell));
             }
-            break;
+            boolean afloatChanged = false;
+            if(newlySunk && sunkShip.getSize() < opponentShipsAfloat.length &&
+               opponentShipsAfloat[sunkShip.getSize()] > 0)
+            {
+                opponentShipsAfloat[sunkShip.getSize()]--;
+                afloatChanged = true;
+            }
+
+            //the longest ship afloat might have been the one that sunk
+            int longest = opponentShipsAfloat.length - 1;
+            while(longest > 0 && opponentShipsAfloat[longest] == 0)
+            {
+                longest--;
+            }
+            setMaxOpponentShipLength(longest);
+            return afloatChanged;
         }
+        return false;
+    }
 
+    /**
+     * Helper method to set the state of a cell on this player's board and
+     * update the point values of the cells around it
+     * @param target index of the cell, y*width + x
+     * @param state the new state of the cell
+     */
+    private void restoreCell(int target, int state)
+    {
+        board.setCellState(target, state);
+        scorer.cellChanged(board.getX(target), board.getY(target));
+        density.cellChanged(board, board.getX(target), board.getY(target));
     }
-    
+
     /**
     sets the number of remaining shots for this player
     @param newNumShots the number of shots this player will have. must be non-negative
@@ -817,34 +1291,16 @@ public class Player
     {
         String returnStr = "";
 
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < board.getHeight(); y++)
         {
             returnStr += "\n\n\n";
-            for(int x = 0; x < 10; x++)
+            for(int x = 0; x < board.getWidth(); x++)
             {
-                boolean hasShip = false;
-                for(int i = 0; i < 5; i++)
+                if(shipAt[board.getIndex(x, y)] != NO_SHIP)
                 {
-                    Coord coord = null;
-                    try
-                    {
-                        coord = new Coord(x,y);
-                    }
-                    catch(InvalidCoordinateException e)
-                    {
-                        System.out.println(e.getMessage());
-                        System.exit(1);
-                    }
-
-                    if(ships[i].hasCell(coord))
-                    {
-                        hasShip = true;
-                        returnStr += "X\t";
-                        break;
-                    }
+                    returnStr += "X\t";
                 }
-
-                if(!hasShip)
+                else
                 {
                     returnStr += "O\t";
                 }
@@ -855,671 +1311,194 @@ public class Player
     }
 
     /**
-     * Generates a random arrangement of ships for this player
+     * Generates a random arrangement of ships for this player. Each ship is placed
+     * with a single draw from the placements that don't overlap the ships before it.
+     * If the board is so crowded that a ship has nowhere to go, the whole fleet is
+     * tried again
+     * @return true if the fleet was placed. False if the fleet couldn't be placed,
+     * in which case the ships are left where they were
      */
-    public void generateRandomShipPlacement()
-    {
-        //make sure all ships are reset to null
-        carrier = null;
-        battleship = null;
-        cruiser = null;
-        submarine = null;
-        patrolBoat = null;
-
-        placeShip(CARRIER, 5);
-        ships[4] = carrier;
-        carrier.setName("Carrier");
-
-        placeShip(BATTLESHIP, 4);
-        ships[3] = battleship;
-        battleship.setName("Battleship");
-
-        placeShip(CRUISER, 3);
-        ships[2] = cruiser;
-        cruiser.setName("Cruiser");
-
-        placeShip(SUBMARINE, 3);
-        ships[1] = submarine;
-        submarine.setName("Submarine");
-
-        placeShip(PATROL_BOAT, 2);
-        ships[0] = patrolBoat;
-        patrolBoat.setName("Patrol Boat");
-    }
-
-    private void placeShip(int ship, int shipSize)
-    {
-        Random rng = new Random();
-        boolean placedSuccessfully = false;
-        Coord currentCoordinate = new Coord();
-
-        //we repeat this loop every time we haven't found a valid location for the ship
-        while(!placedSuccessfully)
-        {
-            try
-            {
-                currentCoordinate.setX(rng.nextInt(10));
-                currentCoordinate.setY(rng.nextInt(10));
-            }
-            catch(InvalidCoordinateException e)
-            {
-                System.out.println("Error: random board generated invalid coordinate");
-                System.exit(1);
-            }
-
-            //we want to try orienting the ship up, down, left, and right in a random order
-            int up = rng.nextInt();
-            int down = rng.nextInt();
-            int left = rng.nextInt();
-            int right = rng.nextInt();
-            int[] order = {up, down, left, right};
-            Arrays.sort(order);
-
-            boolean triedUp = false;
-            boolean triedDown = false;
-            boolean triedLeft = false;
-            boolean triedRight = false;
-
-            //call the methods in random order
-            for(int i = 0; i < 4; i++)
-            {
-                if(order[i] == up && !triedUp)
-                {
-                    triedUp = true;
-                    if(tryOrientationUp(ship, shipSize, currentCoordinate))
-                    {
-                            //placed successfully
-                            placedSuccessfully = true;
-                            break;
-                    }
-                }
-                else if(order[i] == down && !triedDown)
-                {
-                    triedDown = true;
-                    if(tryOrientationDown(ship, shipSize, currentCoordinate))
-                    {
-                            placedSuccessfully = true;
-                            break;
-                    }
-                }
-                else if(order[i] == left && !triedLeft)
-                {
-                    triedLeft = true;
-                    if(tryOrientationLeft(ship, shipSize, currentCoordinate))
-                    {
-                            placedSuccessfully = true;
-                            break;
-                    }
-                }
-                else if(order[i] == right && !triedRight)
-                {
-                    triedRight = true;
-                    if(tryOrientationRight(ship, shipSize, currentCoordinate))
-                    {
-                            placedSuccessfully = true;
-                            break;
-                    }
-                }
-            }
-        }
-    }
-
-    private boolean tryOrientationUp(int ship, int shipSize, Coord coord)
+    public boolean generateRandomShipPlacement()
     {
-        for(int i = 0; i < shipSize; i++)
-        {
-            for(int j = 0; j < 5; j++)
-            {
-                Coord currentCoord = null;
-                try
-                {
-                    currentCoord = new Coord(coord.getX(), coord.getY() - i);
-                }
-                catch(InvalidCoordinateException e)
-                {
-                    //went out of bounds
-                    return false;
-                }
-
-                if(ships[j] == null)
-                {
-                    continue;
-                }
-                else if(ships[j].hasCell(currentCoord))
-                {
-                    return false;
-                }
-            }
-        }
-
-        //didn't go out of bounds and didn't intersect with any other ships so we place the ship
-        Cell[] newShipCells = new Cell[shipSize];
-        Ship thisShip = new Ship(shipSize);
-
-        for(int i = 0; i < shipSize; i++)
+        if(fleetGenerator == null)
         {
-            Cell nextCell = null;
             try
             {
-                nextCell = board.getCell(coord.getX(), coord.getY() - i);
+                fleetGenerator = new FleetGenerator(board.getWidth(), board.getHeight(), fleet.getLengths(), rng);
             }
-            catch(InvalidCoordinateException e)
+            catch(InvalidBoardSizeException e) //should never happen since the board already has this size
             {
-                System.out.println("Error: tryOrientationUp generated an invalid coordinate.");
                 System.out.println(e.getMessage());
                 System.exit(1);
             }
-            newShipCells[i] = new Cell(nextCell);
+            randomFleet = new int[fleetGenerator.getNumShips()];
         }
 
-        try
+        boolean placed = false;
+        for(int attempt = 0; attempt < MAX_FLEET_ATTEMPTS && !placed; attempt++)
         {
-            thisShip.setCells(newShipCells);
+            placed = fleetGenerator.nextFleet(randomFleet, 0);
         }
-        catch(Exception e)
+        if(!placed)
         {
-            System.out.println(e.getMessage());
+            return false;
         }
 
-        switch(ship)
+        //fleet is generated in slot order
+        for(int slot = 0; slot < ships.length; slot++)
         {
-        case CARRIER:		
-            carrier = new Ship(thisShip);
-            break;
-        case BATTLESHIP:	
-            battleship = new Ship(thisShip);
-            break;
-        case CRUISER:		
-            cruiser = new Ship(thisShip);
-            break;
-        case SUBMARINE:		
-            submarine = new Ship(thisShip);
-            break;
-        case PATROL_BOAT:	
-            patrolBoat = new Ship(thisShip);
-            break;
+            ships[slot] = placeShipAt(slot, randomFleet[slot]);
         }
 
+        indexAllShips();
         return true;
     }
 
-    private boolean tryOrientationDown(int ship, int shipSize, Coord coord)
+    /**
+     * Helper method to rebuild the cell to ship index for every ship
+     */
+    private void indexAllShips()
     {
-        for(int i = 0; i < shipSize; i++)
+        if(shipAt == null)
         {
-            for(int j = 0; j < 5; j++)
-            {
-                Coord currentCoord = null;
-                try
-                {
-                    currentCoord = new Coord(coord.getX(), coord.getY() + i);
-                }
-                catch(InvalidCoordinateException e)
-                {
-                    //went out of bounds
-                    return false;
-                }
-
-                if(ships[j] == null)
-                {
-                    continue;
-                }
-                else if(ships[j].hasCell(currentCoord))
-                {
-                    return false;
-                }
-            }
+            shipAt = new byte[board.getNumCells()];
+            shipCellHit = new boolean[board.getNumCells()];
+            remainingHits = new int[ships.length];
         }
-
-        //didn't go out of bounds and didn't intersect with any other ships so we place the ship
-        Cell[] newShipCells = new Cell[shipSize];
-        Ship thisShip = new Ship(shipSize);
-        for(int i = 0; i < shipSize; i++)
+        Arrays.fill(shipAt, NO_SHIP);
+        Arrays.fill(shipCellHit, false);
+        Arrays.fill(remainingHits, 0);
+        for(int slot = 0; slot < ships.length; slot++)
         {
-            Cell nextCell = null;
-            try
-            {
-                nextCell = board.getCell(coord.getX(), coord.getY() + i);
-            }
-            catch(InvalidCoordinateException e)
-            {
-                System.out.println("Error: tryOrientationDown generated an invalid coordinate.");
-                System.out.println(e.getMessage());
-                System.exit(1);
-            }
-            newShipCells[i] = new Cell(nextCell);
-        }
-
-        try
-        {
-            thisShip.setCells(newShipCells);
-        }
-        catch(Exception e)
-        {
-            System.out.println(e.getMessage());
+            indexShip(slot);
         }
-
-
-        switch(ship)
-        {
-        case CARRIER:		
-            carrier = new Ship(thisShip);
-            break;
-        case BATTLESHIP:	
-            battleship = new Ship(thisShip);
-            break;
-        case CRUISER:		
-            cruiser = new Ship(thisShip);
-            break;
-        case SUBMARINE:		
-            submarine = new Ship(thisShip);
-            break;
-        case PATROL_BOAT:	
-            patrolBoat = new Ship(thisShip);
-            break;
-        }
-
-        return true;
     }
 
-    private boolean tryOrientationLeft(int ship, int shipSize, Coord coord)
+    /**
+     * Helper method to add a ship to the cell to ship index after it has been placed
+     * @param slot index of the ship in ships
+     */
+    private void indexShip(int slot)
     {
-        for(int i = 0; i < shipSize; i++)
-        {
-            for(int j = 0; j < 5; j++)
-            {
-                Coord currentCoord = null;
-                try
-                {
-                    currentCoord = new Coord(coord.getX() - i, coord.getY());
-                }
-                catch(InvalidCoordinateException e)
-                {
-                    //went out of bounds
-                    return false;
-                }
-
-                if(ships[j] == null)
-                {
-                    continue;
-                }
-                else if(ships[j].hasCell(currentCoord))
-                {
-                    return false;
-                }
-            }
-        }
-
-        //didn't go out of bounds and didn't intersect with any other ships so we place the ship
-        Cell[] newShipCells = new Cell[shipSize];
-        Ship thisShip = new Ship(shipSize);
-        for(int i = 0; i < shipSize; i++)
-        {
-            Cell nextCell = null;
-            try
-            {
-                nextCell = board.getCell(coord.getX() - i, coord.getY());
-            }
-            catch(InvalidCoordinateException e)
-            {
-                System.out.println("Error: tryOrientationLeft generated an invalid coordinate.");
-                System.out.println(e.getMessage());
-                System.exit(1);
-            }
-            newShipCells[i] = new Cell(nextCell);
-        }
-
-        try
-        {
-            thisShip.setCells(newShipCells);
-        }
-        catch(Exception e)
-        {
-            System.out.println(e.getMessage());
-        }
-
-
-        switch(ship)
+        remainingHits[slot] = 0;
+        Ship ship = ships[slot];
+        if(ship == null)
         {
-        case CARRIER:		
-            carrier = new Ship(thisShip);
-            break;
-        case BATTLESHIP:	
-            battleship = new Ship(thisShip);
-            break;
-        case CRUISER:		
-            cruiser = new Ship(thisShip);
-            break;
-        case SUBMARINE:		
-            submarine = new Ship(thisShip);
-            break;
-        case PATROL_BOAT:	
-            patrolBoat = new Ship(thisShip);
-            break;
+            return;
         }
-
-        return true;
-    }
-
-    private boolean tryOrientationRight(int ship, int shipSize, Coord coord)
-    {
-        for(int i = 0; i < shipSize; i++)
+        for(int i = 0; i < ship.getSize(); i++)
         {
-            for(int j = 0; j < 5; j++)
+            int index = ship.getCellIndex(i, board.getWidth());
+            if(index < 0)
             {
-                Coord currentCoord = null;
-                try
-                {
-                    currentCoord = new Coord(coord.getX() + i, coord.getY());
-                }
-                catch(InvalidCoordinateException e)
-                {
-                    //went out of bounds
-                    return false;
-                }
-
-                if(ships[j] == null)
-                {
-                    continue;
-                }
-                else if(ships[j].hasCell(currentCoord))
-                {
-                    return false;
-                }
+                continue;
             }
-        }
-
-        //didn't go out of bounds and didn't intersect with any other ships so we place the ship
-        Cell[] newShipCells = new Cell[shipSize];
-        Ship thisShip = new Ship(shipSize);
-        for(int i = 0; i < shipSize; i++)
-        {
-            Cell nextCell = null;
-            try
+            shipAt[index] = (byte) slot;
+            if(ship.getCellState(i) == Cell.UNTOUCHED)
             {
-                nextCell = board.getCell(coord.getX() + i, coord.getY());
+                remainingHits[slot]++;
             }
-            catch(InvalidCoordinateException e)
+            else
             {
-                System.out.println("Error: tryOrientationRight generated an invalid coordinate.");
-                System.out.println(e.getMessage());
-                System.exit(1);
+                shipCellHit[index] = true;
             }
-            newShipCells[i] = new Cell(nextCell);
         }
-
-        try
-        {
-            thisShip.setCells(newShipCells);
-        }
-        catch(Exception e)
-        {
-            System.out.println(e.getMessage());
-        }
-
-        switch(ship)
-        {
-        case CARRIER:		
-            carrier = new Ship(thisShip);
-            break;
-        case BATTLESHIP:	
-            battleship = new Ship(thisShip);
-            break;
-        case CRUISER:		
-            cruiser = new Ship(thisShip);
-            break;
-        case SUBMARINE:		
-            submarine = new Ship(thisShip);
-            break;
-        case PATROL_BOAT:	
-            patrolBoat = new Ship(thisShip);
-            break;
-        }
-
-        return true;
     }
 
     /**
-     * helper method to calculate the point values for every cell on the board
+     * Helper method to take a ship out of the cell to ship index before it is
+     * moved or removed. Only the ship's own cells are cleared
+     * @param slot index of the ship in ships
      */
-    private void recalculateTotalPoints()
+    private void unindexShip(int slot)
     {
-        if(allShipsSunk())
+        remainingHits[slot] = 0;
+        Ship ship = ships[slot];
+        if(ship == null)
         {
-            nextRecommendation = new Coord();
             return;
         }
-
-        //recalculate points for each cell in the board
-        for(int y = 0; y < 10; y++)
+        for(int i = 0; i < ship.getSize(); i++)
         {
-            for(int x = 0; x < 10; x++)
+            int index = ship.getCellIndex(i, board.getWidth());
+            if(index >= 0 && shipAt[index] == slot)
             {
-                double newPoints = 0;
-                try
-                {
-                    newPoints += calcPointsUp(board.getCell(x, y));
-                    newPoints += calcPointsDown(board.getCell(x, y));
-                    newPoints += calcPointsLeft(board.getCell(x, y));
-                    newPoints += calcPointsRight(board.getCell(x, y));
-                }
-                catch(InvalidCoordinateException e) //should never happen since coordinate values are hardcoded
-                {
-                    System.out.println("Coordinate Error in recalculate method");
-                    System.exit(1);
-                }
-                board.setCellValue(x, y, newPoints);
+                shipAt[index] = NO_SHIP;
+                shipCellHit[index] = false;
             }
         }
     }
 
     /**
-     * this method will calculate the current cell's point value only for the adjacent cells to the north.
-     * calcPointsDown, calcPointsLeft, and calcPointsRight work almost identically
-     * @param currentCell the cell that we are assigning a point value to
-     * @return the point value for the adjacent cells to the north
+     * Creates a ship on the cells of a placement generated by the fleet generator
+     * @param slot slot of the ship in the fleet
+     * @param placement the ship as written by the fleet generator
+     * @return the new ship
      */
-    private double calcPointsUp(Cell cell) throws InvalidCoordinateException
+    private Ship placeShipAt(int slot, int placement)
     {
-        double upPoints = 0; //running total to return
-        int maxLength = maxOpponentShipLength - 1; //decremented to account for counter starting at 0
-        int counter = 0; //for making sure we don't go over the max length
-
-        //only untouched cells can have point values
-        if(cell.getState() != Cell.UNTOUCHED)
-        {
-            return 0;
-        }
+        int shipSize = fleet.getLength(slot);
+        int start = FleetGenerator.getStartCell(placement);
+        int width = board.getWidth();
+        int step = FleetGenerator.isHorizontal(placement) ? 1 : width;
+        Cell[] newShipCells = new Cell[shipSize];
+        Ship thisShip = new Ship(shipSize, true, fleet.getName(slot));
 
-        //loop for checking adjacent cells above currentCell
-        //y is decremented b/c y = 0 is the top row of the board
-        //loop's condition checks if we go out of bounds of the board
-        //more specific break conditions are checked inside the loop
-        for(int y = cell.getYCoord(); y >= 0; y--)
+        for(int i = 0; i < shipSize; i++)
         {
-            Cell currentCell = board.getCell(cell.getXCoord(), y);
-            int currentState = currentCell.getState();
-
-            //make sure we don't check past the necessary number of cells
-            if(counter > maxLength)
-            {
-                break;
-            }
-            //make sure we stop if we encounter a sunken ship or missed shot
-            else if(currentState == Cell.MISS || currentState == Cell.SUNKEN_SHIP)
-            {
-                break;
-            }
-            //add a small amount of points for an untouched adjacent cell
-            else if(currentState == Cell.UNTOUCHED)
+            int cell = start + i*step;
+            try
             {
-                upPoints += BASE_VALUE_UNTOUCHED - counter*DIMINISHING_MULTIPLIER;
-                counter++;
+                newShipCells[i] = new Cell(cell % width, cell / width);
             }
-            //add a large amount of points for an adjacent hit
-            // uses formula: -x^2/a - x/b + c
-            // where x = counter, a = A_DENOM, b = B_DENOM, c = BASE_VALUE
-            else if(currentState == Cell.HIT)
+            catch(InvalidCoordinateException e) //should never happen since placements are on the board
             {
-                //upPoints += -(counter*counter)/A_DENOM - counter/B_DENOM + BASE_VALUE_HIT;
-                upPoints += 30 - (5*counter);
-                counter++;
+                System.out.println("Error: placeShipAt generated an invalid coordinate.");
+                System.out.println(e.getMessage());
+                System.exit(1);
             }
         }
 
-        return upPoints;
-    }
-
-    /**
-     * this method will calculate the current cell's point value only for the adjacent cells to the south.
-     * @param currentCell the cell that we are assigning a point value to
-     * @return the point value for the adjacent cells to the south
-     */
-    private double calcPointsDown(Cell cell) throws InvalidCoordinateException
-    {
-        double downPoints = 0;
-        int maxLength = maxOpponentShipLength - 1;
-        int counter = 0;
-
-        if(cell.getState() != Cell.UNTOUCHED)
+        try
         {
-            return 0;
+            thisShip.setCells(newShipCells);
         }
-
-        for(int y = cell.getYCoord(); y <= 9; y++)
+        catch(Exception e)
         {
-            Cell currentCell = board.getCell(cell.getXCoord(), y);
-            int currentState = currentCell.getState();
-
-            //make sure we don't check past the necessary number of cells
-            if(counter > maxLength)
-            {
-                break;
-            }
-            //make sure we stop if we encounter a sunken ship or missed shot
-            else if(currentState == Cell.MISS || currentState == Cell.SUNKEN_SHIP)
-            {
-                break;
-            }
-            //add a small amount of points for an untouched adjacent cell
-            else if(currentState == Cell.UNTOUCHED)
-            {
-                downPoints += BASE_VALUE_UNTOUCHED - counter*DIMINISHING_MULTIPLIER;
-                counter++;
-            }
-            //add a large amount of points for an adjacent hit
-            // uses formula: -x^2/a - x/b + c
-            // where x = counter, a = A_DENOM, b = B_DENOM, c = BASE_VALUE
-            else if(currentState == Cell.HIT)
-            {
-                //downPoints += -(counter*counter)/A_DENOM - counter/B_DENOM + BASE_VALUE_HIT;
-                downPoints += 30 - (5*counter);
-                counter++;
-            }
+            System.out.println(e.getMessage());
         }
-
-        return downPoints;
+        return thisShip;
     }
 
     /**
-     * this method will calculate the current cell's point value only for the adjacent cells to the west.
-     * @param currentCell the cell that we are assigning a point value to
-     * @return the point value for the adjacent cells to the west
+     * helper method to make sure the point values for every cell on the board are up to date.
+     * Values are only recalculated from scratch when the largest opponent ship length has
+     * changed. Otherwise they were already updated when each shot was processed
      */
-    private double calcPointsLeft(Cell cell) throws InvalidCoordinateException
+    private void recalculateTotalPoints()
     {
-        double leftPoints = 0;
-        int maxLength = maxOpponentShipLength - 1;
-        int counter = 0;
-
-        if(cell.getState() != Cell.UNTOUCHED)
+        if(allShipsSunk())
         {
-            return 0;
+            nextRecommendation = Coord.ORIGIN;
+            return;
         }
 
-        for(int x = cell.getXCoord(); x >= 0; x--)
+        if(scorer.isStale(maxOpponentShipLength))
         {
-            Cell currentCell = board.getCell(x, cell.getYCoord());
-            int currentState = currentCell.getState();
-
-            //make sure we don't check past the necessary number of cells
-            if(counter > maxLength)
-            {
-                break;
-            }
-            //make sure we stop if we encounter a sunken ship or missed shot
-            else if(currentState == Cell.MISS || currentState == Cell.SUNKEN_SHIP)
-            {
-                break;
-            }
-            //add a small amount of points for an untouched adjacent cell
-            else if(currentState == Cell.UNTOUCHED)
-            {
-                leftPoints += BASE_VALUE_UNTOUCHED - counter*DIMINISHING_MULTIPLIER;
-                counter++;
-            }
-            //add a large amount of points for an adjacent hit
-            // uses formula: -x^2/a - x/b + c
-            // where x = counter, a = A_DENOM, b = B_DENOM, c = BASE_VALUE
-            else if(currentState == Cell.HIT)
-            {
-                //leftPoints += -(counter*counter)/A_DENOM - counter/B_DENOM + BASE_VALUE_HIT;
-                leftPoints += 30 - (5*counter);
-                counter++;
-            }
+            scorer.recalculateAll(maxOpponentShipLength);
         }
-
-        return leftPoints;
     }
 
     /**
-     * this method will calculate the current cell's point value only for the adjacent cells to the east.
-     * @param currentCell the cell that we are assigning a point value to
-     * @return the point value for the adjacent cells to the east
+     * helper method to get the fleet sampler, creating it the first time it is needed
+     * @return the fleet sampler for this player's board
      */
-    private double calcPointsRight(Cell cell) throws InvalidCoordinateException
+    private MonteCarloTargeter getMonteCarlo()
     {
-        double rightPoints = 0;
-        int maxLength = maxOpponentShipLength - 1;
-        int counter = 0;
-
-        if(cell.getState() != Cell.UNTOUCHED)
+        if(monteCarlo == null)
         {
-            return 0;
+            monteCarlo = new MonteCarloTargeter(board.getWidth(), board.getHeight());
         }
-
-        for(int x = cell.getXCoord(); x <= 9; x++)
-        {
-            Cell currentCell = board.getCell(x, cell.getYCoord());
-            int currentState = currentCell.getState();
-
-            //make sure we don't check past the necessary number of cells
-            if(counter > maxLength)
-            {
-                break;
-            }
-            //make sure we stop if we encounter a sunken ship or missed shot
-            else if(currentState == Cell.MISS || currentState == Cell.SUNKEN_SHIP)
-            {
-                break;
-            }
-            //add a small amount of points for an untouched adjacent cell
-            else if(currentState == Cell.UNTOUCHED)
-            {
-                rightPoints += BASE_VALUE_UNTOUCHED - counter*DIMINISHING_MULTIPLIER;
-                counter++;
-            }
-            //add a large amount of points for an adjacent hit
-            // uses formula: -x^2/a - x/b + c
-            // where x = counter, a = A_DENOM, b = B_DENOM, c = BASE_VALUE
-            else if(currentState == Cell.HIT)
-            {
-                //rightPoints += -(counter*counter)/A_DENOM - counter/B_DENOM + BASE_VALUE_HIT;
-                rightPoints += 30 - (5*counter);
-                counter++;
-            }
-        }
-
-        return rightPoints;
+        return monteCarlo;
     }
 }
@@ -0,0 +1,284 @@
+package battleship.data;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class remembers the cells that the computer chose between for positions it
+has already scored, so the same position never has to be scored twice. A
+position is the Zobrist hash of the shooter's board together with the targeting
+mode, the length of the largest enemy ship afloat and the number of enemy ships
+of each length still afloat. For each position the cache stores every cell tied
+for the best score, and one of them is chosen randomly just like when the
+position is scored from scratch.
+
+Most games start from the same few positions, but after the first several shots
+nearly every position is new. Only positions with at most MAX_TOUCHED_CELLS cells
+shot at are worth remembering, and players don't look anything up later in the
+game. A single cache is meant to be shared by every player in the process. It
+holds a fixed number of positions and forgets the least recently used ones when
+it is full. To let many threads use it at once, the positions are split between
+segments that each have their own lock. The least recently used position is
+forgotten from within its segment.
+*/
+public final class RecommendationCache
+{
+    /**number of positions held by the shared cache*/
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**most cells that can be tied for a position for it to be stored. Positions
+    with more ties, like an empty board, are cheap to score anyway*/
+    public static final int MAX_CANDIDATES = 64;
+
+    /**most cells that can have been shot at for a position to be looked up or stored*/
+    public static final int MAX_TOUCHED_CELLS = 12;
+
+    /**number of separately locked segments*/
+    private static final int NUM_SEGMENTS = 16;
+
+    /**the cache shared by every player unless they are given their own*/
+    public static final RecommendationCache SHARED = new RecommendationCache(DEFAULT_CAPACITY);
+
+    /**most positions held by the whole cache*/
+    private final int capacity;
+
+    /**the segments that hold the positions*/
+    private final Segment[] segments;
+
+    /**number of lookups that found their position*/
+    private final LongAdder hits;
+
+    /**number of lookups that didn't find their position*/
+    private final LongAdder misses;
+
+    /**number of positions forgotten to make room for new ones*/
+    private final LongAdder evictions;
+
+    /**
+     * Constructor that takes the number of positions to hold
+     * @param capacity most positions the cache holds. At least one per segment is always held
+     */
+    public RecommendationCache(int capacity)
+    {
+        int perSegment = Math.max((capacity + NUM_SEGMENTS - 1) / NUM_SEGMENTS, 1);
+        this.capacity = perSegment*NUM_SEGMENTS;
+        segments = new Segment[NUM_SEGMENTS];
+        for(int i = 0; i < NUM_SEGMENTS; i++)
+        {
+            segments[i] = new Segment(perSegment);
+        }
+        hits = new LongAdder();
+        misses = new LongAdder();
+        evictions = new LongAdder();
+    }
+
+    /**
+     * Looks up the best cells for a position
+     * @param boardHash Zobrist hash of the shooter's board
+     * @param targetingMode targeting mode that scored the position
+     * @param maxShipLength length of the largest enemy ship afloat
+     * @param shipsAfloat number of enemy ships afloat indexed by length
+     * @return a copy of the indexes of the cells tied for the best score. null
+     * if the position isn't in the cache
+     */
+    public int[] get(long boardHash, int targetingMode, int maxShipLength, int[] shipsAfloat)
+    {
+        Key key = new Key(boardHash, targetingMode, maxShipLength, shipsAfloat);
+        Segment segment = getSegment(key);
+        int[] candidates;
+        synchronized(segment)
+        {
+            candidates = segment.get(key);
+        }
+
+        if(candidates == null)
+        {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return candidates.clone();
+    }
+
+    /**
+     * Stores the best cells for a position, forgetting the least recently used
+     * position in its segment if the segment is full
+     * @param boardHash Zobrist hash of the shooter's board
+     * @param targetingMode targeting mode that scored the position
+     * @param maxShipLength length of the largest enemy ship afloat
+     * @param shipsAfloat number of enemy ships afloat indexed by length
+     * @param candidates indexes of the cells tied for the best score
+     * @return true if the position was stored. False if there were no candidates
+     * or more than MAX_CANDIDATES
+     */
+    public boolean put(long boardHash, int targetingMode, int maxShipLength, int[] shipsAfloat, int[] candidates)
+    {
+        if(candidates == null || candidates.length == 0 || candidates.length > MAX_CANDIDATES)
+        {
+            return false;
+        }
+
+        Key key = new Key(boardHash, targetingMode, maxShipLength, shipsAfloat.clone());
+        Segment segment = getSegment(key);
+        synchronized(segment)
+        {
+            segment.put(key, candidates.clone());
+        }
+        return true;
+    }
+
+    /**
+     * Forgets every position. The counters are not reset
+     */
+    public void clear()
+    {
+        for(Segment segment : segments)
+        {
+            synchronized(segment)
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of positions currently held
+     * @return the number of positions in every segment
+     */
+    public int size()
+    {
+        int size = 0;
+        for(Segment segment : segments)
+        {
+            synchronized(segment)
+            {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups that found their position
+     * @return the hit rate from 0 to 1. 0 if there have been no lookups
+     */
+    public double getHitRate()
+    {
+        long numHits = getHits();
+        long lookups = numHits + getMisses();
+        if(lookups == 0)
+        {
+            return 0;
+        }
+        return (double) numHits / lookups;
+    }
+
+    public String toString()
+    {
+        return String.format("Recommendation cache: %d/%d positions, %d hits, %d misses (%.2f%% hit rate), %d evictions",
+                             size(), capacity, getHits(), getMisses(), 100*getHitRate(), getEvictions());
+    }
+
+    /**
+     * Helper method to find the segment that holds a position
+     * @param key the position
+     * @return the segment for the position
+     */
+    private Segment getSegment(Key key)
+    {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (NUM_SEGMENTS - 1)];
+    }
+
+    /**
+     * A position that has been scored
+     */
+    private static final class Key
+    {
+        private final long boardHash;
+        private final int targetingMode;
+        private final int maxShipLength;
+        private final int[] shipsAfloat;
+
+        private Key(long boardHash, int targetingMode, int maxShipLength, int[] shipsAfloat)
+        {
+            this.boardHash = boardHash;
+            this.targetingMode = targetingMode;
+            this.maxShipLength = maxShipLength;
+            this.shipsAfloat = shipsAfloat;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if(!(other instanceof Key))
+            {
+                return false;
+            }
+            Key key = (Key) other;
+            return boardHash == key.boardHash && targetingMode == key.targetingMode &&
+                   maxShipLength == key.maxShipLength && Arrays.equals(shipsAfloat, key.shipsAfloat);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int h = Long.hashCode(boardHash);
+            h = 31*h + targetingMode;
+            h = 31*h + maxShipLength;
+            return 31*h + Arrays.hashCode(shipsAfloat);
+        }
+    }
+
+    /**
+     * A group of positions kept in least recently used order
+     */
+    private final class Segment extends LinkedHashMap<Key, int[]>
+    {
+        /**most positions held by this segment*/
+        private final int segmentCapacity;
+
+        private Segment(int segmentCapacity)
+        {
+            super(16, 0.75f, true);
+            this.segmentCapacity = segmentCapacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest)
+        {
+            if(size() > segmentCapacity)
+            {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
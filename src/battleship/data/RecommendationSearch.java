@@ -0,0 +1,232 @@
+package battleship.data;
+
+import battleship.exceptions.InvalidCoordinateException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class is a recommendation that keeps getting better while it is being
+worked on. A search always has an answer: it starts with a shot found with a
+quick calculation, and targeting modes that can do better with more time refine
+it with work units that run in the background. The best shot found so far can be
+read at any time, so a caller with a deadline waits as long as it can afford,
+cancels the search and uses whatever it has.
+
+The work units only use copies of the board taken when the search was started,
+so the board can change as soon as the caller is done waiting. Cancelling a
+search stops work units that haven't started and makes running ones stop within
+a few fleets. Nothing they find after that is used.
+*/
+public final class RecommendationSearch
+{
+    /**width of the board the search is for*/
+    private final int width;
+
+    /**untouched cells when the search was started, using the same layout as the board*/
+    private final long[] untouched;
+
+    /**used for breaking ties between refined shots*/
+    private final Random rng;
+
+    /**fewest fleets that have to be sampled before the counts replace the first answer*/
+    private final int minSamples;
+
+    /**best shot found so far*/
+    private volatile Coord best;
+
+    /**true once the search has been cancelled*/
+    private volatile boolean cancelled;
+
+    /**number of sampled fleets covering each cell from the work units finished so far*/
+    private int[] counts;
+
+    /**number of fleets sampled by the work units finished so far*/
+    private int samples;
+
+    /**number of work units that haven't finished yet*/
+    private int pendingUnits;
+
+    /**
+     * Constructor for a search that will be refined
+     * @param board the board of shots fired at the enemy
+     * @param first the answer from the quick calculation
+     * @param rng random number generator used to break ties
+     * @param minSamples fewest fleets that have to be sampled before the counts are used
+     */
+    RecommendationSearch(Board board, Coord first, Random rng, int minSamples)
+    {
+        width = board.getWidth();
+        untouched = new long[board.getNumWords()];
+        for(int w = 0; w < untouched.length; w++)
+        {
+            untouched[w] = board.getWord(Cell.UNTOUCHED, w);
+        }
+        this.rng = rng;
+        this.minSamples = minSamples;
+        best = first;
+        cancelled = false;
+        counts = new int[board.getNumCells()];
+        samples = 0;
+        pendingUnits = 0;
+    }
+
+    /**
+     * Constructor for a search whose answer is already final
+     * @param answer the recommended shot
+     */
+    RecommendationSearch(Coord answer)
+    {
+        width = 0;
+        untouched = null;
+        rng = null;
+        minSamples = 0;
+        best = answer;
+        cancelled = false;
+        counts = null;
+        samples = 0;
+        pendingUnits = 0;
+    }
+
+    /**
+     * Gets the best shot found so far
+     * @return the recommended coordinate to shoot at
+     */
+    public Coord getBest()
+    {
+        return best;
+    }
+
+    /**
+     * Gets the number of fleets that the refined answer is based on so far
+     * @return the number of fleets sampled. 0 for targeting modes that aren't refined
+     */
+    public synchronized int getSamples()
+    {
+        return samples;
+    }
+
+    /**
+     * Checks if every work unit has finished or stopped
+     * @return true if the answer will not change anymore
+     */
+    public synchronized boolean isDone()
+    {
+        return pendingUnits == 0;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Stops refining the answer. The best shot found so far stays available
+     */
+    public synchronized void cancel()
+    {
+        cancelled = true;
+        notifyAll();
+    }
+
+    /**
+     * Waits for every work unit to finish, up to a time limit
+     * @param timeout most time to wait
+     * @param unit unit of the timeout
+     * @return true if the search finished, false if the time ran out first
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public synchronized boolean await(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while(pendingUnits > 0 && !cancelled)
+        {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0)
+            {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return pendingUnits == 0;
+    }
+
+    /**
+     * Adds work units that have to finish before the search is done. Must be
+     * called before the units are started
+     * @param numUnits number of work units
+     */
+    synchronized void addUnits(int numUnits)
+    {
+        pendingUnits += numUnits;
+    }
+
+    /**
+     * Adds the counts of a finished work unit and updates the best shot. The
+     * counts are thrown away if the search has been cancelled
+     * @param unitCounts number of the unit's fleets covering each cell
+     * @param unitSamples number of fleets the unit sampled
+     */
+    synchronized void finishUnit(int[] unitCounts, int unitSamples)
+    {
+        pendingUnits--;
+        if(!cancelled && unitSamples > 0)
+        {
+            for(int i = 0; i < counts.length; i++)
+            {
+                counts[i] += unitCounts[i];
+            }
+            samples += unitSamples;
+            if(samples >= minSamples)
+            {
+                updateBest();
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Helper method to choose the untouched cell with the highest count. If
+     * several are tied then one of them is chosen randomly
+     */
+    private void updateBest()
+    {
+        int highestValue = -1;
+        int numTies = 0;
+        int bestCell = -1;
+        for(int i = 0; i < counts.length; i++)
+        {
+            if((untouched[i >>> 6] & (1L << i)) == 0)
+            {
+                continue;
+            }
+            if(counts[i] > highestValue)
+            {
+                highestValue = counts[i];
+                numTies = 1;
+                bestCell = i;
+            }
+            //keep each tied cell with equal probability
+            else if(counts[i] == highestValue && rng.nextInt(++numTies) == 0)
+            {
+                bestCell = i;
+            }
+        }
+        if(bestCell < 0)
+        {
+            return;
+        }
+
+        try
+        {
+            best = Coord.valueOfIndex(bestCell, width);
+        }
+        catch(InvalidCoordinateException e) //should never happen since the counts only cover cells on the board
+        {
+            System.out.println("Coordinate Error in recommendation search.");
+            System.exit(1);
+        }
+    }
+}
@@ -10,12 +10,18 @@ Programmer: Steven Siddall
 
 This class represents a single ship in a game of battleship.
 
+getCell and getCells return copies of the ship's cells. A ship is also a
+ShipView, which reads the location and state of each cell without copying it.
 */
-public class Ship
+public class Ship implements ShipView
 {
     /**unique ID that will be assigned to the next ship. Note: Current
     implementation of the main game does not use this*/
     private static int nextID = 0;
+
+    /**smallest and largest number of cells a ship can take up*/
+    public static final int MIN_SIZE = 2;
+    public static final int MAX_SIZE = Board.MAX_SIZE;
     
     /**number of spaces this ship takes up*/
     private int size;
@@ -48,7 +54,7 @@ public class Ship
 
     /**
     Constructor that takes only the size of the ship
-    @param newSize size of the ship. Must be 2 to 5 inclusive
+    @param newSize size of the ship. Must be MIN_SIZE to MAX_SIZE inclusive
     */
     public Ship(int newSize)
     {
@@ -70,7 +76,7 @@ public class Ship
      */
     public Ship(int size, boolean afloat, String name)
     {
-        if(size < 2 || size > 5)
+        if(!isValidSize(size))
         {
             this.size = 0;
             cells = new Cell[size];
@@ -91,14 +97,14 @@ public class Ship
 
     /**
      * Full constructor. size of ship and length of cell array must be equivalent
-     * @param size number of spaces that this ship takes up. 2 to 5 inclusive
+     * @param size number of spaces that this ship takes up. MIN_SIZE to MAX_SIZE inclusive
      * @param afloat whether or not the ship is floating
      * @param cells cells that this ship is on. Should be shallow copy with board cells
      */
     public Ship(int size, boolean afloat, String name, Cell[] cells) throws InvalidShipPlacementException
     {
         this.name = name;
-        if(size < 2 || size > 5 || size != cells.length)
+        if(!isValidSize(size) || size != cells.length)
         {
             this.size = 0;
             this.cells = new Cell[size];
@@ -147,12 +153,12 @@ public class Ship
 
     /**
      * Sets the size of the ship and resets the cell[] to the new size
-     * @param size new size of the ship. Must be 2 to 5 inclusive
+     * @param size new size of the ship. Must be MIN_SIZE to MAX_SIZE inclusive
      * @return true if the size was set and cell[] was reset successfully
      */
     public boolean setSize(int size)
     {
-        if(size < 2 || size > 5)
+        if(!isValidSize(size))
         {
             return false;
         }
@@ -161,6 +167,16 @@ public class Ship
         return true;
     }
 
+    /**
+     * Checks if a ship can have a size
+     * @param size the number of cells
+     * @return true if the size is from MIN_SIZE to MAX_SIZE inclusive
+     */
+    public static boolean isValidSize(int size)
+    {
+        return size >= MIN_SIZE && size <= MAX_SIZE;
+    }
+
     /***
      * Sets the array of cells that this ship is on
      * @param cells cells this ship is on. Must be the same length as the size of the ship
@@ -222,6 +238,124 @@ public class Ship
         return new Cell(cells[i]);
     }
 
+    /**
+     * Gets the index of one of this ship's cells without copying the cell
+     * @param i index of the cell in the array
+     * @param width number of columns on the board
+     * @return the cell's index on the board, y*width + x. -1 if there is no cell at i
+     */
+    int getCellIndex(int i, int width)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return -1;
+        }
+        return cells[i].getCoords().getIndex(width);
+    }
+
+    /**
+     * Gets the state of one of this ship's cells without copying the cell
+     * @param i index of the cell in the array
+     * @return the state of the cell. -1 if there is no cell at i
+     */
+    @Override
+    public int getCellState(int i)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return -1;
+        }
+        return cells[i].getState();
+    }
+
+    /**
+     * Finds which of this ship's cells is on a board index
+     * @param index index of the cell on the board, y*width + x
+     * @param width number of columns on the board
+     * @return the index of the cell in the array. -1 if the ship isn't on that index
+     */
+    int findCellIndex(int index, int width)
+    {
+        for(int i = 0; i < size; i++)
+        {
+            if(getCellIndex(i, width) == index)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the state of one of this ship's cells. Used to undo shots
+     * @param i index of the cell in the array
+     * @param state new state of the cell
+     * @return true if there was a cell at i and the state was valid
+     */
+    boolean setCellState(int i, int state)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return false;
+        }
+        return cells[i].setState(state);
+    }
+
+    /**
+     * Gets the x coordinate of one of this ship's cells without copying the cell
+     * @param i index of the cell in the array
+     * @return the x coordinate of the cell. -1 if there is no cell at i
+     */
+    @Override
+    public int getCellX(int i)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return -1;
+        }
+        return cells[i].getCoords().getX();
+    }
+
+    /**
+     * Gets the y coordinate of one of this ship's cells without copying the cell
+     * @param i index of the cell in the array
+     * @return the y coordinate of the cell. -1 if there is no cell at i
+     */
+    @Override
+    public int getCellY(int i)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return -1;
+        }
+        return cells[i].getCoords().getY();
+    }
+
+    /**
+     * Gets the coordinates of one of this ship's cells without copying the cell
+     * @param i index of the cell in the array
+     * @return the shared coord of the cell. null if there is no cell at i
+     */
+    @Override
+    public Coord getCellCoords(int i)
+    {
+        if(i >= size || i < 0 || cells[i] == null)
+        {
+            return null;
+        }
+        return cells[i].getCoords();
+    }
+
+    /**
+     * Copies this ship as it is right now
+     * @return a deep copy of this ship
+     */
+    @Override
+    public Ship snapshot()
+    {
+        return new Ship(this);
+    }
+
     /**
      * Gets a cell based on its coordinates
      * @param x the x coordinate of the desired cell
@@ -322,7 +456,8 @@ public class Ship
             {
                 continue;
             }
-            if(cells[i].getXCoord() == x && cells[i].getYCoord() == y)
+            Coord coords = cells[i].getCoords();
+            if(coords.getX() == x && coords.getY() == y)
             {
                 foundCellInShip = true;
                 cells[i].setState(Cell.HIT);
@@ -349,6 +484,24 @@ public class Ship
         return foundCellInShip;
     }
 
+    /**
+     * If this ship is on the cell at the specified index then it sets the
+     * state of the cell to hit.
+     * Also checks if that was the last cell that wasn't hit in which case
+     * it sets the ship to sunk.
+     * @param index index of the cell, y*width + x
+     * @param width number of columns on the board
+     * @return true if the cell was a part of the ship
+     */
+    public boolean hitCellIndex(int index, int width)
+    {
+        if(index < 0 || width <= 0)
+        {
+            return false;
+        }
+        return hitCell(index % width, index / width);
+    }
+
     public String toString()
     {
         String returnStr = "";
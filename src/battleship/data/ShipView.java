@@ -0,0 +1,66 @@
+package battleship.data;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This interface is a read-only view of a ship. It gives the location and state
+of each of the ship's cells without copying them, unlike getCell and getCells on
+Ship. A view shows the ship as it is right now and keeps changing along with it
+as the ship is hit, so it is live rather than immutable. Callers that need a ship
+that won't change should take a snapshot.
+
+A view handed out by a player is the player's own ship. It must never be cast
+back to a Ship, since changing it would change the game.
+*/
+public interface ShipView
+{
+    String getName();
+
+    int getSize();
+
+    boolean isAfloat();
+
+    int getID();
+
+    /**
+     * Gets the x coordinate of one of the ship's cells
+     * @param i index of the cell in the ship
+     * @return the x coordinate of the cell. -1 if there is no cell at i
+     */
+    int getCellX(int i);
+
+    /**
+     * Gets the y coordinate of one of the ship's cells
+     * @param i index of the cell in the ship
+     * @return the y coordinate of the cell. -1 if there is no cell at i
+     */
+    int getCellY(int i);
+
+    /**
+     * Gets the coordinates of one of the ship's cells
+     * @param i index of the cell in the ship
+     * @return the shared coord of the cell. null if there is no cell at i
+     */
+    Coord getCellCoords(int i);
+
+    /**
+     * Gets the state of one of the ship's cells
+     * @param i index of the cell in the ship
+     * @return the state of the cell. -1 if there is no cell at i
+     */
+    int getCellState(int i);
+
+    /**
+     * Determines if the ship is on a cell with the specified coordinates
+     * @param coord the coordinate to check
+     * @return true if the ship is on that coordinate
+     */
+    boolean hasCell(Coord coord);
+
+    /**
+     * Copies the ship as it is right now. The copy doesn't change when the ship does
+     * @return a deep copy of the ship
+     */
+    Ship snapshot();
+}
@@ -0,0 +1,238 @@
+package battleship.engine;
+
+import battleship.data.Coord;
+import battleship.data.FireResult;
+import battleship.data.Player;
+import battleship.exceptions.InvalidCoordinateException;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class runs the turns of a game between two players without any UI. It
+decides whose turn it is, fires shots, replenishes shots at the end of each
+turn based on the game mode, and checks for a winner.
+
+The GUI uses it to drive a game between a human and the computer one shot at a
+time with fire and fireRecommended. Simulations can call play to run a whole
+game between two computer players at once.
+
+Both players must use the same board size.
+
+Game Modes:
+0: Classic. Each player gets one shot per turn
+1: Salvo. Each player gets as many shots as they have ships afloat
+*/
+public class GameEngine
+{
+    public static final int MODE_CLASSIC = 0;
+    public static final int MODE_SALVO = 1;
+
+    /**index of the player who goes first*/
+    public static final int FIRST_PLAYER = 0;
+    /**index of the player who goes second*/
+    public static final int SECOND_PLAYER = 1;
+
+    /**most shots a player can fire in play before the game is given up as a
+    draw, unless the board has more cells than this. Only reached if a player
+    keeps shooting at cells it already shot*/
+    private static final int MAX_SHOTS = 1000;
+
+    /**the two players, indexed by FIRST_PLAYER and SECOND_PLAYER*/
+    private Player[] players;
+
+    /**MODE_CLASSIC or MODE_SALVO*/
+    private int gameMode;
+
+    /**index of the player whose turn it is*/
+    private int currentPlayer;
+
+    /**index of the player who won. -1 while the game is still going*/
+    private int winner;
+
+    /**number of shots each player has fired*/
+    private int[] shotsFired;
+
+    /**number of turns that have been completed by either player*/
+    private int turns;
+
+    /**
+     * Full constructor. The first player gets the first turn
+     * @param first the player who goes first
+     * @param second the player who goes second
+     * @param gameMode MODE_CLASSIC or MODE_SALVO
+     */
+    public GameEngine(Player first, Player second, int gameMode)
+    {
+        players = new Player[2];
+        shotsFired = new int[2];
+        reset(first, second, gameMode);
+    }
+
+    /**
+     * Starts a new game with new players so the engine can be reused
+     * @param first the player who goes first
+     * @param second the player who goes second
+     * @param gameMode MODE_CLASSIC or MODE_SALVO
+     */
+    public void reset(Player first, Player second, int gameMode)
+    {
+        players[FIRST_PLAYER] = first;
+        players[SECOND_PLAYER] = second;
+        this.gameMode = gameMode;
+        currentPlayer = FIRST_PLAYER;
+        winner = -1;
+        shotsFired[FIRST_PLAYER] = 0;
+        shotsFired[SECOND_PLAYER] = 0;
+        turns = 0;
+
+        first.replenishShots(gameMode);
+        second.replenishShots(gameMode);
+    }
+
+    /**
+     * The current player fires at the other player. If that was the current
+     * player's last shot of the turn, both players' shots are replenished and
+     * it becomes the other player's turn
+     * @param target the coordinates being shot at
+     * @return the result of the shot
+     * @throws InvalidCoordinateException thrown if the target is not on the board
+     */
+    public FireResult fire(Coord target) throws InvalidCoordinateException
+    {
+        return fire(players[1 - currentPlayer].getCellIndex(target));
+    }
+
+    /**
+     * The current player fires at the cell with the given index. Works the same
+     * as fire with a Coord
+     * @param target index of the cell being shot at, y*width + x
+     * @return the result of the shot
+     * @throws InvalidCoordinateException thrown if the target is not on the board
+     */
+    public FireResult fire(int target) throws InvalidCoordinateException
+    {
+        Player shooter = players[currentPlayer];
+        Player opponent = players[1 - currentPlayer];
+
+        FireResult result = opponent.fireAt(target, shooter);
+        shotsFired[currentPlayer]++;
+
+        if(opponent.allShipsSunk())
+        {
+            winner = currentPlayer;
+        }
+        else if(shooter.getNumShots() <= 0)
+        {
+            shooter.replenishShots(gameMode);
+            opponent.replenishShots(gameMode);
+            currentPlayer = 1 - currentPlayer;
+            turns++;
+        }
+        return result;
+    }
+
+    /**
+     * The current player fires at the cell that it recommends
+     * @return the result of the shot
+     * @throws InvalidCoordinateException thrown if the recommendation is not on the board
+     */
+    public FireResult fireRecommended() throws InvalidCoordinateException
+    {
+        Player shooter = players[currentPlayer];
+        shooter.updateRecommendation();
+        return fire(shooter.getRecommendation());
+    }
+
+    /**
+     * Plays the rest of the game with both players firing at their own recommendations
+     * @return the result of the game
+     * @throws InvalidCoordinateException thrown if a recommendation is not on the board
+     */
+    public GameResult play() throws InvalidCoordinateException
+    {
+        int maxShots = Math.max(MAX_SHOTS, players[FIRST_PLAYER].getBoardWidth()*players[FIRST_PLAYER].getBoardHeight());
+        while(!isGameOver())
+        {
+            if(shotsFired[currentPlayer] >= maxShots)
+            {
+                break;
+            }
+            fireRecommended();
+        }
+        return new GameResult(winner, shotsFired[FIRST_PLAYER], shotsFired[SECOND_PLAYER], turns);
+    }
+
+    /**
+     * Plays a whole game between two computer players
+     * @param first the player who goes first. Ships must already be placed
+     * @param second the player who goes second. Ships must already be placed
+     * @param gameMode MODE_CLASSIC or MODE_SALVO
+     * @return the result of the game
+     * @throws InvalidCoordinateException thrown if a recommendation is not on the board
+     */
+    public static GameResult play(Player first, Player second, int gameMode) throws InvalidCoordinateException
+    {
+        return new GameEngine(first, second, gameMode).play();
+    }
+
+    /**
+     * Gets the player whose turn it is
+     * @return the player whose turn it is
+     */
+    public Player getCurrentPlayer()
+    {
+        return players[currentPlayer];
+    }
+
+    /**
+     * Gets the player who is being shot at this turn
+     * @return the player whose turn it is not
+     */
+    public Player getOpponent()
+    {
+        return players[1 - currentPlayer];
+    }
+
+    /**
+     * Checks if one of the players has sunk all of the other's ships
+     * @return true if the game is over
+     */
+    public boolean isGameOver()
+    {
+        return winner != -1;
+    }
+
+    /**
+     * Gets the player who won
+     * @return the winning player. null if the game is not over
+     */
+    public Player getWinner()
+    {
+        if(winner == -1)
+        {
+            return null;
+        }
+        return players[winner];
+    }
+
+    /**
+     * Gets the number of shots a player has fired this game
+     * @param player FIRST_PLAYER or SECOND_PLAYER
+     * @return the number of shots that player has fired
+     */
+    public int getShotsFired(int player)
+    {
+        return shotsFired[player];
+    }
+
+    public int getGameMode()
+    {
+        return gameMode;
+    }
+
+    public int getTurns()
+    {
+        return turns;
+    }
+}
@@ -0,0 +1,80 @@
+package battleship.engine;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class holds the outcome of a game played by the GameEngine.
+
+Winner:
+-1: Draw. The game was stopped before either player won
+0: The first player won
+1: The second player won
+*/
+public class GameResult
+{
+    public static final int DRAW = -1;
+
+    private int winner;
+    private int firstPlayerShots;
+    private int secondPlayerShots;
+    private int turns;
+
+    /**
+    Full constructor
+    @param winner index of the winning player or DRAW
+    @param firstPlayerShots number of shots fired by the first player
+    @param secondPlayerShots number of shots fired by the second player
+    @param turns number of turns completed by either player
+    */
+    public GameResult(int winner, int firstPlayerShots, int secondPlayerShots, int turns)
+    {
+        this.winner = winner;
+        this.firstPlayerShots = firstPlayerShots;
+        this.secondPlayerShots = secondPlayerShots;
+        this.turns = turns;
+    }
+
+    public int getWinner()
+    {
+        return winner;
+    }
+
+    public int getFirstPlayerShots()
+    {
+        return firstPlayerShots;
+    }
+
+    public int getSecondPlayerShots()
+    {
+        return secondPlayerShots;
+    }
+
+    public int getTurns()
+    {
+        return turns;
+    }
+
+    /**
+    Gets the number of shots the winner needed to sink every enemy ship
+    @return the winner's shots. -1 if the game was a draw
+    */
+    public int getWinnerShots()
+    {
+        if(winner == GameEngine.FIRST_PLAYER)
+        {
+            return firstPlayerShots;
+        }
+        else if(winner == GameEngine.SECOND_PLAYER)
+        {
+            return secondPlayerShots;
+        }
+        return -1;
+    }
+
+    public String toString()
+    {
+        return "Winner: " + winner + "\nFirst Player Shots: " + firstPlayerShots +
+               "\nSecond Player Shots: " + secondPlayerShots + "\nTurns: " + turns;
+    }
+}
@@ -0,0 +1,183 @@
+package battleship.engine;
+
+import java.util.Arrays;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class collects the results of many games for one side of a tournament.
+The number of shots each win took is stored as a histogram instead of a list so
+that millions of games can be recorded in a fixed amount of memory and stats
+from different threads can be merged by adding the counts together. The
+histogram only grows as far as the longest win recorded, so stats for huge
+boards don't cost memory for shot counts that never happen.
+*/
+public class StrategyStats
+{
+    /**number of buckets the histogram starts with*/
+    private static final int INITIAL_BUCKETS = 128;
+
+    /**name of the strategy for reports*/
+    private String name;
+
+    /**number of games this strategy played*/
+    private long games;
+
+    /**number of games this strategy won*/
+    private long wins;
+
+    /**total shots fired in all the games this strategy won*/
+    private long totalWinShots;
+
+    /**largest number of shots recorded in the histogram. Wins that take more
+    shots are counted in the last bucket*/
+    private int maxRecordedShots;
+
+    /**number of wins that took each number of shots*/
+    private long[] winShotCounts;
+
+    /**
+     * Constructor that takes the name of the strategy and the most shots a win can take
+     * @param name the name of the strategy for reports
+     * @param maxRecordedShots the most shots a win can take, normally the number
+     *        of cells on the board. Wins that take more are recorded as this many
+     */
+    public StrategyStats(String name, int maxRecordedShots)
+    {
+        this.name = name;
+        this.maxRecordedShots = Math.max(maxRecordedShots, 0);
+        games = 0;
+        wins = 0;
+        totalWinShots = 0;
+        winShotCounts = new long[Math.min(this.maxRecordedShots, INITIAL_BUCKETS) + 1];
+    }
+
+    /**
+     * Records a game that this strategy lost or drew
+     */
+    public void recordLoss()
+    {
+        games++;
+    }
+
+    /**
+     * Records a game that this strategy won
+     * @param shots number of shots this strategy fired to win
+     */
+    public void recordWin(int shots)
+    {
+        games++;
+        wins++;
+        totalWinShots += shots;
+        int bucket = Math.min(Math.max(shots, 0), maxRecordedShots);
+        growHistogram(bucket + 1);
+        winShotCounts[bucket]++;
+    }
+
+    /**
+     * Adds the results from another set of stats for the same strategy to this one
+     * @param other the stats to add
+     */
+    public void merge(StrategyStats other)
+    {
+        games += other.games;
+        wins += other.wins;
+        totalWinShots += other.totalWinShots;
+        int buckets = Math.min(other.winShotCounts.length, maxRecordedShots + 1);
+        growHistogram(buckets);
+        for(int i = 0; i < other.winShotCounts.length; i++)
+        {
+            winShotCounts[Math.min(i, maxRecordedShots)] += other.winShotCounts[i];
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getGames()
+    {
+        return games;
+    }
+
+    public long getWins()
+    {
+        return wins;
+    }
+
+    /**
+     * Gets the fraction of games that this strategy won
+     * @return the win rate from 0 to 1. 0 if no games were played
+     */
+    public double getWinRate()
+    {
+        if(games == 0)
+        {
+            return 0;
+        }
+        return (double) wins / games;
+    }
+
+    /**
+     * Gets the average number of shots this strategy needed to win
+     * @return the mean shots to win. 0 if this strategy never won
+     */
+    public double getMeanShotsToWin()
+    {
+        if(wins == 0)
+        {
+            return 0;
+        }
+        return (double) totalWinShots / wins;
+    }
+
+    /**
+     * Gets a percentile of the number of shots this strategy needed to win
+     * @param percentile the percentile to find from 0 to 100
+     * @return the smallest number of shots that at least that percent of wins took
+     * no more than. 0 if this strategy never won
+     */
+    public int getShotsToWinPercentile(double percentile)
+    {
+        if(wins == 0)
+        {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(wins * percentile / 100.0);
+        long seen = 0;
+        for(int shots = 0; shots < winShotCounts.length; shots++)
+        {
+            seen += winShotCounts[shots];
+            if(seen >= target && seen > 0)
+            {
+                return shots;
+            }
+        }
+        return maxRecordedShots;
+    }
+
+    /**
+     * Helper method to make sure the histogram has at least a number of buckets.
+     * It at least doubles in size each time it grows so recording stays cheap
+     * @param buckets the number of buckets needed
+     */
+    private void growHistogram(int buckets)
+    {
+        if(buckets > winShotCounts.length)
+        {
+            int newLength = Math.min(Math.max(buckets, 2*winShotCounts.length), maxRecordedShots + 1);
+            winShotCounts = Arrays.copyOf(winShotCounts, newLength);
+        }
+    }
+
+    public String toString()
+    {
+        return String.format("%s: %d/%d wins (%.2f%%), shots to win mean %.2f, p50 %d, p90 %d, p99 %d",
+                             name, wins, games, 100*getWinRate(), getMeanShotsToWin(),
+                             getShotsToWinPercentile(50), getShotsToWinPercentile(90),
+                             getShotsToWinPercentile(99));
+    }
+}
@@ -0,0 +1,80 @@
+package battleship.engine;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class holds the combined results of a tournament run by TournamentRunner,
+including how fast the games were played.
+*/
+public class TournamentResult
+{
+    private StrategyStats firstStrategy;
+    private StrategyStats secondStrategy;
+    private long games;
+    private long draws;
+    private long elapsedNanos;
+
+    /**
+    Full constructor
+    @param firstStrategy results for the first strategy
+    @param secondStrategy results for the second strategy
+    @param games total number of games played
+    @param draws number of games that neither strategy won
+    @param elapsedNanos wall clock time the tournament took in nanoseconds
+    */
+    public TournamentResult(StrategyStats firstStrategy, StrategyStats secondStrategy,
+                            long games, long draws, long elapsedNanos)
+    {
+        this.firstStrategy = firstStrategy;
+        this.secondStrategy = secondStrategy;
+        this.games = games;
+        this.draws = draws;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public StrategyStats getFirstStrategy()
+    {
+        return firstStrategy;
+    }
+
+    public StrategyStats getSecondStrategy()
+    {
+        return secondStrategy;
+    }
+
+    public long getGames()
+    {
+        return games;
+    }
+
+    public long getDraws()
+    {
+        return draws;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    /**
+    Gets the throughput of the tournament
+    @return the number of games played per second of wall clock time
+    */
+    public double getGamesPerSecond()
+    {
+        if(elapsedNanos == 0)
+        {
+            return 0;
+        }
+        return games / (elapsedNanos / 1e9);
+    }
+
+    public String toString()
+    {
+        return String.format("%d games in %.2f s (%.0f games/s), %d draws%n%s%n%s",
+                             games, elapsedNanos / 1e9, getGamesPerSecond(), draws,
+                             firstStrategy, secondStrategy);
+    }
+}
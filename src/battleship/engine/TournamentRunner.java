@@ -0,0 +1,412 @@
+package battleship.engine;
+
+import battleship.data.Board;
+import battleship.data.FleetSpec;
+import battleship.data.Player;
+import battleship.data.RecommendationCache;
+import battleship.exceptions.BattleshipException;
+import battleship.exceptions.InvalidBoardSizeException;
+import battleship.exceptions.InvalidCoordinateException;
+import battleship.exceptions.InvalidShipPlacementException;
+import battleship.exceptions.InvalidShipSizeException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class plays a large number of games between two computer players to
+compare their targeting modes. The games are split into tasks that run on a
+work stealing pool with one thread per available core. Each thread keeps its own
+pair of players and game engine and resets them between games instead of
+creating new ones, so no objects are shared between threads while the games are
+being played. Each task collects its own stats, which are merged together as the
+tasks finish.
+
+The two strategies take turns going first so that neither one gets the
+advantage of the first shot.
+*/
+public class TournamentRunner
+{
+    /**most games played by a single task before it is split in half*/
+    private static final int GAMES_PER_TASK = 1000;
+
+    /**number of games played when none is given on the command line*/
+    private static final int DEFAULT_GAMES = 100000;
+
+    /**targeting mode of each strategy. See the targeting modes in Player*/
+    private int firstStrategy;
+    private int secondStrategy;
+
+    /**MODE_CLASSIC or MODE_SALVO*/
+    private int gameMode;
+
+    /**number of threads used to play the games*/
+    private int parallelism;
+
+    /**size of both players' boards*/
+    private int boardWidth;
+    private int boardHeight;
+
+    /**ships that both players use*/
+    private FleetSpec fleet;
+
+    /**each thread's reusable players and engine*/
+    private ThreadLocal<Table> tables;
+
+    /**
+     * Constructor that uses one thread per available core
+     * @param firstStrategy targeting mode of the first strategy
+     * @param secondStrategy targeting mode of the second strategy
+     * @param gameMode MODE_CLASSIC or MODE_SALVO
+     */
+    public TournamentRunner(int firstStrategy, int secondStrategy, int gameMode)
+    {
+        this(firstStrategy, secondStrategy, gameMode, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Full constructor
+     * @param firstStrategy targeting mode of the first strategy
+     * @param secondStrategy targeting mode of the second strategy
+     * @param gameMode MODE_CLASSIC or MODE_SALVO
+     * @param parallelism number of threads to play the games on. At least 1
+     */
+    public TournamentRunner(int firstStrategy, int secondStrategy, int gameMode, int parallelism)
+    {
+        this.firstStrategy = firstStrategy;
+        this.secondStrategy = secondStrategy;
+        this.gameMode = gameMode;
+        this.parallelism = Math.max(parallelism, 1);
+        boardWidth = Board.DEFAULT_SIZE;
+        boardHeight = Board.DEFAULT_SIZE;
+        fleet = FleetSpec.CLASSIC;
+        tables = new ThreadLocal<>();
+    }
+
+    /**
+     * Sets the size of the boards that the games are played on. Must be called
+     * before run
+     * @param width number of columns on each board
+     * @param height number of rows on each board
+     * @return true if the size is supported, the fleet fits on it, and it was set
+     */
+    public boolean setBoardSize(int width, int height)
+    {
+        try
+        {
+            Board.checkSize(width, height);
+        }
+        catch(InvalidBoardSizeException e)
+        {
+            return false;
+        }
+        if(!fleet.fitsOn(width, height))
+        {
+            return false;
+        }
+        boardWidth = width;
+        boardHeight = height;
+        return true;
+    }
+
+    /**
+     * Sets the ships that both players use. Must be called before run
+     * @param fleet the fleet for both players
+     * @return true if the fleet fits on the board and was set
+     */
+    public boolean setFleet(FleetSpec fleet)
+    {
+        if(fleet == null || !fleet.fitsOn(boardWidth, boardHeight))
+        {
+            return false;
+        }
+        this.fleet = fleet;
+        return true;
+    }
+
+    /**
+     * Plays the tournament
+     * @param numGames number of games to play
+     * @return the combined results of every game
+     * @throws BattleshipException thrown if a player fires at a cell that is not on the board
+     * or a fleet couldn't be placed
+     * @throws InterruptedException thrown if the thread is interrupted while waiting for the games
+     */
+    public TournamentResult run(int numGames) throws BattleshipException, InterruptedException
+    {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        Tally tally;
+        try
+        {
+            tally = pool.submit(new GamesTask(0, Math.max(numGames, 0))).get();
+        }
+        catch(ExecutionException e)
+        {
+            //find the exception thrown by the game that failed
+            for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
+            {
+                if(cause instanceof BattleshipException)
+                {
+                    throw (BattleshipException) cause;
+                }
+            }
+            throw new BattleshipException("Tournament failed: " + e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new TournamentResult(tally.first, tally.second, tally.games, tally.draws, elapsed);
+    }
+
+    /**
+     * Gets the name of a targeting mode for reports
+     * @param strategy the targeting mode
+     * @return the name of the targeting mode
+     */
+    public static String getStrategyName(int strategy)
+    {
+        switch(strategy)
+        {
+            case Player.TARGETING_HEURISTIC:
+                return "Heuristic";
+            case Player.TARGETING_DENSITY:
+                return "Density";
+            case Player.TARGETING_MONTE_CARLO:
+                return "Monte Carlo";
+            default:
+                return "Unknown";
+        }
+    }
+
+    /**
+     * Runs a tournament from the command line and prints the results
+     * @param args number of games, game mode (classic or salvo), first strategy,
+     * second strategy (heuristic, density or montecarlo), board width, board height and
+     * number of ships. All are optional. Fleets with more or fewer ships than the
+     * classic fleet repeat the classic ship lengths
+     * @throws Exception thrown if the tournament fails
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int mode = args.length > 1 && args[1].equalsIgnoreCase("salvo") ? GameEngine.MODE_SALVO : GameEngine.MODE_CLASSIC;
+        int first = args.length > 2 ? parseStrategy(args[2]) : Player.TARGETING_HEURISTIC;
+        int second = args.length > 3 ? parseStrategy(args[3]) : Player.TARGETING_DENSITY;
+
+        int width = args.length > 4 ? Integer.parseInt(args[4]) : Board.DEFAULT_SIZE;
+        int height = args.length > 5 ? Integer.parseInt(args[5]) : width;
+        int numShips = args.length > 6 ? Integer.parseInt(args[6]) : FleetSpec.CLASSIC.getNumShips();
+
+        int[] lengths = new int[Math.max(numShips, 0)];
+        for(int i = 0; i < lengths.length; i++)
+        {
+            lengths[i] = FleetSpec.CLASSIC.getLength(i % FleetSpec.CLASSIC.getNumShips());
+        }
+
+        TournamentRunner runner = new TournamentRunner(first, second, mode);
+        if(!runner.setBoardSize(width, height))
+        {
+            System.out.println("Unsupported board size: " + width + "x" + height);
+            return;
+        }
+        if(!runner.setFleet(new FleetSpec(lengths)))
+        {
+            System.out.println("A fleet of " + numShips + " ships doesn't fit on the board");
+            return;
+        }
+        System.out.println(runner.run(games));
+        System.out.println(RecommendationCache.SHARED);
+    }
+
+    /**
+     * Helper method to read a targeting mode from the command line
+     * @param name heuristic, density or montecarlo
+     * @return the targeting mode
+     */
+    private static int parseStrategy(String name)
+    {
+        if(name.equalsIgnoreCase("density"))
+        {
+            return Player.TARGETING_DENSITY;
+        }
+        if(name.equalsIgnoreCase("montecarlo"))
+        {
+            return Player.TARGETING_MONTE_CARLO;
+        }
+        return Player.TARGETING_HEURISTIC;
+    }
+
+    /**
+     * Helper method to get the calling thread's players and engine, creating
+     * them the first time the thread plays a game
+     * @return the calling thread's table
+     */
+    private Table getTable()
+    {
+        Table table = tables.get();
+        if(table == null)
+        {
+            table = new Table();
+            tables.set(table);
+        }
+        return table;
+    }
+
+    /**
+     * Helper method to play a single game on the calling thread
+     * @param game number of the game in the tournament. Decides who goes first
+     * @param tally the stats to add the result to
+     * @throws InvalidCoordinateException thrown if a player fires at a cell that is not on the board
+     * @throws InvalidShipPlacementException thrown if a player's fleet couldn't be placed. The
+     * game isn't counted
+     */
+    private void playGame(int game, Tally tally) throws InvalidCoordinateException, InvalidShipPlacementException
+    {
+        Table table = getTable();
+        table.firstPlayer.reset();
+        table.secondPlayer.reset();
+        //players are reused, so a failed placement would leave last game's ships
+        if(!table.firstPlayer.generateRandomShipPlacement() || !table.secondPlayer.generateRandomShipPlacement())
+        {
+            throw new InvalidShipPlacementException("Invalid Ship Placement: fleet could not be placed randomly on a " +
+                                                    boardWidth + "x" + boardHeight + " board in game " + game);
+        }
+
+        //the strategies swap seats every game
+        boolean firstStrategyStarts = game % 2 == 0;
+        if(firstStrategyStarts)
+        {
+            table.engine.reset(table.firstPlayer, table.secondPlayer, gameMode);
+        }
+        else
+        {
+            table.engine.reset(table.secondPlayer, table.firstPlayer, gameMode);
+        }
+        GameResult result = table.engine.play();
+
+        int firstSeat = firstStrategyStarts ? GameEngine.FIRST_PLAYER : GameEngine.SECOND_PLAYER;
+        tally.games++;
+        if(result.getWinner() == GameResult.DRAW)
+        {
+            tally.draws++;
+            tally.first.recordLoss();
+            tally.second.recordLoss();
+        }
+        else if(result.getWinner() == firstSeat)
+        {
+            tally.first.recordWin(result.getWinnerShots());
+            tally.second.recordLoss();
+        }
+        else
+        {
+            tally.second.recordWin(result.getWinnerShots());
+            tally.first.recordLoss();
+        }
+    }
+
+    /**
+     * The players and engine that a single thread reuses for all of its games
+     */
+    private class Table
+    {
+        private Player firstPlayer;
+        private Player secondPlayer;
+        private GameEngine engine;
+
+        private Table()
+        {
+            try
+            {
+                firstPlayer = new Player(getStrategyName(firstStrategy), boardWidth, boardHeight, fleet);
+                secondPlayer = new Player(getStrategyName(secondStrategy), boardWidth, boardHeight, fleet);
+            }
+            catch(InvalidBoardSizeException | InvalidShipSizeException e) //should never happen since the setters checked them
+            {
+                System.out.println(e.getMessage());
+                System.exit(1);
+            }
+            firstPlayer.setTargetingMode(firstStrategy);
+            secondPlayer.setTargetingMode(secondStrategy);
+            engine = new GameEngine(firstPlayer, secondPlayer, gameMode);
+        }
+    }
+
+    /**
+     * Stats collected by a single task
+     */
+    private class Tally
+    {
+        private StrategyStats first;
+        private StrategyStats second;
+        private long games;
+        private long draws;
+
+        private Tally()
+        {
+            //a win never takes more shots than there are cells to shoot at
+            first = new StrategyStats(getStrategyName(firstStrategy), boardWidth*boardHeight);
+            second = new StrategyStats(getStrategyName(secondStrategy), boardWidth*boardHeight);
+            games = 0;
+            draws = 0;
+        }
+
+        private void merge(Tally other)
+        {
+            first.merge(other.first);
+            second.merge(other.second);
+            games += other.games;
+            draws += other.draws;
+        }
+    }
+
+    /**
+     * Plays a range of games, splitting the range in half until it is small
+     * enough to play on one thread
+     */
+    private class GamesTask extends RecursiveTask<Tally>
+    {
+        private int from;
+        private int to;
+
+        private GamesTask(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute()
+        {
+            if(to - from > GAMES_PER_TASK)
+            {
+                int middle = (from + to) >>> 1;
+                GamesTask left = new GamesTask(from, middle);
+                left.fork();
+                Tally tally = new GamesTask(middle, to).compute();
+                tally.merge(left.join());
+                return tally;
+            }
+
+            Tally tally = new Tally();
+            try
+            {
+                for(int game = from; game < to; game++)
+                {
+                    playGame(game, tally);
+                }
+            }
+            catch(InvalidCoordinateException | InvalidShipPlacementException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            return tally;
+        }
+    }
+}
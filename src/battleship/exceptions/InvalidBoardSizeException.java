@@ -0,0 +1,23 @@
+package battleship.exceptions;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This is an exception class for the Battleship game.
+This type of exception should be thrown when a board is created with a width or
+height outside of the sizes that are supported
+
+*/
+public class InvalidBoardSizeException extends BattleshipException
+{
+	public InvalidBoardSizeException()
+	{
+		super("Error: Invalid Board Size");
+	}
+	
+	public InvalidBoardSizeException(String newMessage)
+	{
+		super(newMessage);
+	}
+}
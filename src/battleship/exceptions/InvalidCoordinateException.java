@@ -5,7 +5,7 @@ Programmer: Steven Siddall
  @author Steven Siddall
 
 This an exception class that represents an invalid coordinate. This should be
-thrown when a coordinate with x or y element is < 0 or > 9
+thrown when a coordinate with x or y element is < 0 or is off the board
 
 */
 
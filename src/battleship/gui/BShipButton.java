@@ -20,17 +20,17 @@ public class BShipButton extends javafx.scene.control.Button
     public BShipButton()
     {
         super();
-        coords = new Coord();
+        coords = Coord.ORIGIN;
     }
     
     public BShipButton(Coord newCoords)
     {
         super();
-        coords = newCoords;
+        coords = Coord.valueOf(newCoords);
     }
     
     public Coord getCoords()
     {
-        return new Coord(coords);
+        return coords;
     }
 }
\ No newline at end of file
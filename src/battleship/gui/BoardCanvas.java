@@ -0,0 +1,364 @@
+package battleship.gui;
+
+import battleship.data.BoardChangeEvent;
+import battleship.data.BoardListener;
+import battleship.data.BoardView;
+import battleship.data.Cell;
+import battleship.data.Player;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class draws a whole battleship board on a single Canvas. It can be used
+instead of a grid of BShipButtons, which needs a node per cell with its own CSS
+style, and it is cheap enough to show large boards or many boards at once.
+
+Each cell shows one tile: water, a ship, a miss, a hit, a sunken ship or the
+selected target. The tiles are drawn once for each cell size and then copied
+onto the canvas, so drawing a cell is a single drawImage call. Changing a cell's
+tile only marks the cell as dirty. All the changes made during the same pulse
+are drawn together afterwards, and only the dirty cells are drawn.
+
+A BoardCanvas can follow a player's board as a BoardListener. After the whole
+board is shown once, each change to the board only updates the tile of the cell
+that changed. Changes made off the FX thread are passed over to it.
+
+Clicks are turned into the index (y*columns + x) of the cell that was clicked.
+Like any node, a BoardCanvas must only be changed on the FX thread.
+*/
+public class BoardCanvas extends Canvas implements BoardListener
+{
+    //tiles that a cell can show
+    public static final int TILE_WATER = 0;
+    public static final int TILE_SHIP = 1;
+    public static final int TILE_MISS = 2;
+    public static final int TILE_HIT = 3;
+    public static final int TILE_SUNK = 4;
+    public static final int TILE_TARGET = 5;
+
+    /**number of different tiles*/
+    private static final int NUM_TILES = 6;
+
+    /**width of the line drawn around each cell*/
+    private static final double GRID_LINE_WIDTH = 1;
+
+    /**tiles drawn so far, shared by every canvas with the same cell size. Only used on the FX thread*/
+    private static final HashMap<Double, Image[]> TILES = new HashMap<>();
+
+    /**number of columns and rows on the board*/
+    private final int columns;
+    private final int rows;
+
+    /**width and height of each cell in pixels*/
+    private final double cellSize;
+
+    /**tile shown by each cell, indexed by y*columns + x*/
+    private final byte[] tiles;
+
+    /**bitset of cells whose tile has changed since they were last drawn*/
+    private final long[] dirty;
+
+    /**true if a draw of the dirty cells has already been scheduled*/
+    private boolean drawScheduled;
+
+    /**called with the index of each cell that is clicked. null if clicks are ignored*/
+    private IntConsumer onCellClicked;
+
+    /**player whose ships are shown on untouched cells of a followed board. null to hide them*/
+    private Player shipOwner;
+
+    /**
+     * Constructor that takes the size of the board. Every cell starts as water
+     * @param columns number of columns on the board
+     * @param rows number of rows on the board
+     * @param cellSize width and height of each cell in pixels
+     */
+    public BoardCanvas(int columns, int rows, double cellSize)
+    {
+        super(columns*cellSize, rows*cellSize);
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        tiles = new byte[columns*rows];
+        dirty = new long[(columns*rows + 63) / 64];
+        drawScheduled = false;
+        onCellClicked = null;
+        shipOwner = null;
+
+        setOnMouseClicked((MouseEvent event) ->
+        {
+            int index = getCellIndex(event.getX(), event.getY());
+            if(index >= 0 && onCellClicked != null && !isDisabled())
+            {
+                onCellClicked.accept(index);
+            }
+        });
+        redrawAll();
+    }
+
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    public int getRows()
+    {
+        return rows;
+    }
+
+    public double getCellSize()
+    {
+        return cellSize;
+    }
+
+    /**
+     * sets what happens when a cell is clicked
+     * @param onCellClicked called with the index (y*columns + x) of the clicked cell. null to ignore clicks
+     */
+    public void setOnCellClicked(IntConsumer onCellClicked)
+    {
+        this.onCellClicked = onCellClicked;
+    }
+
+    /**
+     * Finds the cell under a point on the canvas
+     * @param x x position in pixels from the left of the canvas
+     * @param y y position in pixels from the top of the canvas
+     * @return the index (y*columns + x) of the cell. -1 if the point isn't on a cell
+     */
+    public int getCellIndex(double x, double y)
+    {
+        if(x < 0 || y < 0)
+        {
+            return -1;
+        }
+        int column = (int) (x / cellSize);
+        int row = (int) (y / cellSize);
+        if(column >= columns || row >= rows)
+        {
+            return -1;
+        }
+        return row*columns + column;
+    }
+
+    /**
+     * Gets the tile a cell shows
+     * @param index index of the cell (y*columns + x)
+     * @return one of the TILE constants
+     */
+    public int getTile(int index)
+    {
+        return tiles[index];
+    }
+
+    /**
+     * sets the tile a cell shows. The cell is drawn again at the end of the pulse
+     * if the tile changed
+     * @param index index of the cell (y*columns + x)
+     * @param tile one of the TILE constants
+     * @return true if the index and tile were valid and the tile was set
+     */
+    public boolean setTile(int index, int tile)
+    {
+        if(index < 0 || index >= tiles.length || tile < 0 || tile >= NUM_TILES)
+        {
+            return false;
+        }
+        if(tiles[index] != tile)
+        {
+            tiles[index] = (byte) tile;
+            markDirty(index);
+        }
+        return true;
+    }
+
+    /**
+     * sets the tile a cell shows
+     * @param x x coordinate of the cell
+     * @param y y coordinate of the cell
+     * @param tile one of the TILE constants
+     * @return true if the cell and tile were valid and the tile was set
+     */
+    public boolean setTile(int x, int y, int tile)
+    {
+        if(x < 0 || x >= columns || y < 0 || y >= rows)
+        {
+            return false;
+        }
+        return setTile(y*columns + x, tile);
+    }
+
+    /**
+     * Shows the shots fired at a board, along with the ships on it if they
+     * should be seen. Only cells whose tile changes are drawn again
+     * @param shots view of the board of shots fired at the ships. Must be the same size as the canvas
+     * @param owner the player whose ships are on the board. null to hide the ships
+     */
+    public void showBoard(BoardView shots, Player owner)
+    {
+        for(int i = 0; i < tiles.length; i++)
+        {
+            setTile(i, getTileFor(shots.getCellState(i), i, owner));
+        }
+    }
+
+    /**
+     * Shows a player's board and then keeps following it, so each shot the
+     * player fires only updates the cells it changed. Remove the canvas from the
+     * shooter's board listeners to stop following it
+     * @param shooter the player whose board of shots is shown. Must be the same size as the canvas
+     * @param owner the player whose ships are on the board. null to hide the ships
+     */
+    public void follow(Player shooter, Player owner)
+    {
+        shipOwner = owner;
+        showBoard(shooter.getBoardView(), owner);
+        shooter.addBoardListener(this);
+    }
+
+    /**
+     * Updates the tile of a cell on a followed board
+     * @param event the change to the cell
+     */
+    @Override
+    public void cellChanged(BoardChangeEvent event)
+    {
+        int index = event.getIndex();
+        int tile = getTileFor(event.getNewState(), index, shipOwner);
+        if(Platform.isFxApplicationThread())
+        {
+            setTile(index, tile);
+        }
+        else
+        {
+            Platform.runLater(() -> setTile(index, tile));
+        }
+    }
+
+    /**
+     * Marks every cell as dirty so the whole board is drawn again
+     */
+    public void redrawAll()
+    {
+        for(int i = 0; i < tiles.length; i++)
+        {
+            markDirty(i);
+        }
+    }
+
+    /**
+     * Draws every dirty cell right away instead of waiting for the end of the pulse
+     */
+    public void drawDirtyCells()
+    {
+        drawScheduled = false;
+        GraphicsContext gc = getGraphicsContext2D();
+        Image[] tileImages = getTiles(cellSize);
+        for(int word = 0; word < dirty.length; word++)
+        {
+            long bits = dirty[word];
+            dirty[word] = 0;
+            while(bits != 0)
+            {
+                int index = word*64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                gc.drawImage(tileImages[tiles[index]], (index % columns)*cellSize, (index / columns)*cellSize,
+                             cellSize, cellSize);
+            }
+        }
+    }
+
+    /**
+     * Helper method to choose the tile for a cell
+     * @param state state of the cell on the board of shots
+     * @param index index of the cell (y*columns + x)
+     * @param owner the player whose ships are on the board. null to hide the ships
+     * @return one of the TILE constants
+     */
+    private static int getTileFor(int state, int index, Player owner)
+    {
+        switch(state)
+        {
+            case Cell.MISS:
+                return TILE_MISS;
+            case Cell.HIT:
+                return TILE_HIT;
+            case Cell.SUNKEN_SHIP:
+                return TILE_SUNK;
+            default:
+                return owner != null && owner.getShipAt(index) != null ? TILE_SHIP : TILE_WATER;
+        }
+    }
+
+    /**
+     * Helper method to mark a cell as dirty and schedule a draw if there isn't one already
+     * @param index index of the cell (y*columns + x)
+     */
+    private void markDirty(int index)
+    {
+        dirty[index >>> 6] |= 1L << index;
+        if(!drawScheduled)
+        {
+            drawScheduled = true;
+            Platform.runLater(this::drawDirtyCells);
+        }
+    }
+
+    /**
+     * Helper method to get the tiles for a cell size, drawing them the first time they are needed
+     * @param size width and height of the tiles in pixels
+     * @return the tile images indexed by the TILE constants
+     */
+    private static Image[] getTiles(double size)
+    {
+        Image[] tileImages = TILES.get(size);
+        if(tileImages == null)
+        {
+            tileImages = new Image[NUM_TILES];
+            tileImages[TILE_WATER] = drawTile(size, Color.LIGHTGRAY, null);
+            tileImages[TILE_SHIP] = drawTile(size, Color.web("#00bf09"), null);
+            tileImages[TILE_MISS] = drawTile(size, Color.LIGHTGRAY, "/imgs/icon_miss.jpg");
+            tileImages[TILE_HIT] = drawTile(size, Color.LIGHTGRAY, "/imgs/icon_hit.jpg");
+            tileImages[TILE_SUNK] = drawTile(size, Color.BLACK, "/imgs/icon_sink.jpg");
+            tileImages[TILE_TARGET] = drawTile(size, Color.YELLOW, null);
+            TILES.put(size, tileImages);
+        }
+        return tileImages;
+    }
+
+    /**
+     * Helper method to draw a single tile
+     * @param size width and height of the tile in pixels
+     * @param background color that fills the tile
+     * @param icon path of the icon drawn over the background. null for no icon
+     * @return the tile image
+     */
+    private static Image drawTile(double size, Color background, String icon)
+    {
+        Canvas tile = new Canvas(size, size);
+        GraphicsContext gc = tile.getGraphicsContext2D();
+        gc.setFill(background);
+        gc.fillRect(0, 0, size, size);
+        if(icon != null)
+        {
+            gc.drawImage(ImageCache.get(icon, size, size, false, true), 0, 0, size, size);
+        }
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(GRID_LINE_WIDTH);
+        gc.strokeRect(0, 0, size, size);
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return tile.snapshot(parameters, null);
+    }
+}
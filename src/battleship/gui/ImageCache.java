@@ -0,0 +1,117 @@
+package battleship.gui;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.scene.image.Image;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+This class keeps the images used by the GUI so that each one is only decoded
+once. An image is decoded at the size it is shown at the first time it is asked
+for, and every later request for the same file at the same size gets the same
+Image. Images can't be changed once they are loaded, so they can be shared by
+any number of ImageViews and backgrounds.
+
+preload decodes every image the game uses on a background thread, so they are
+usually ready by the time the player leaves the main menu. Requests made while
+an image is still being decoded wait for it instead of decoding it again.
+
+Shot icons on the board buttons are set through CSS url() styles, which JavaFX
+already caches by url, so they don't go through this class.
+*/
+public final class ImageCache
+{
+    /**size that ship icons are shown at next to the boards*/
+    public static final double SHIP_ICON_WIDTH = 250;
+    public static final double SHIP_ICON_HEIGHT = 50;
+
+    /**size that background images are shown at*/
+    public static final double BACKGROUND_WIDTH = 1250;
+    public static final double BACKGROUND_HEIGHT = 750;
+
+    /**every ship icon, decoded by preload*/
+    private static final String[] SHIP_ICONS = {
+        "/imgs/icon_carrier_right_green.png", "/imgs/icon_carrier_right_red.png",
+        "/imgs/icon_battleship_right_green.png", "/imgs/icon_battleship_right_red.png",
+        "/imgs/icon_cruiser_right_green.png", "/imgs/icon_cruiser_right_red.png",
+        "/imgs/icon_submarine_right_green.png", "/imgs/icon_submarine_right_red.png",
+        "/imgs/icon_patrolBoat_right_green.png", "/imgs/icon_patrolBoat_right_red.png"
+    };
+
+    /**every background image, decoded by preload*/
+    private static final String[] BACKGROUNDS = {"/imgs/menu_image.jpg", "/imgs/ocean1.jpg"};
+
+    /**the images decoded so far, keyed by file and size*/
+    private static final ConcurrentHashMap<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    /**true once preload has been started*/
+    private static final AtomicBoolean PRELOADING = new AtomicBoolean(false);
+
+    private ImageCache()
+    {
+    }
+
+    /**
+     * Gets an image, decoding it the first time it is asked for
+     * @param path path of the image on the classpath
+     * @param width width to decode the image at
+     * @param height height to decode the image at
+     * @param preserveRatio true to keep the image's aspect ratio within the width and height
+     * @param smooth true to use a better quality filter when scaling
+     * @return the shared image
+     */
+    public static Image get(String path, double width, double height, boolean preserveRatio, boolean smooth)
+    {
+        String key = path + "@" + width + "x" + height + (preserveRatio ? "r" : "") + (smooth ? "s" : "");
+        return IMAGES.computeIfAbsent(key, k -> new Image(ImageCache.class.getResourceAsStream(path),
+                                                          width, height, preserveRatio, smooth));
+    }
+
+    /**
+     * Gets a ship icon at the size shown next to the boards
+     * @param path path of the icon on the classpath
+     * @return the shared image
+     */
+    public static Image getShipIcon(String path)
+    {
+        return get(path, SHIP_ICON_WIDTH, SHIP_ICON_HEIGHT, true, true);
+    }
+
+    /**
+     * Gets a background image at the size of the window
+     * @param path path of the image on the classpath
+     * @return the shared image
+     */
+    public static Image getBackground(String path)
+    {
+        return get(path, BACKGROUND_WIDTH, BACKGROUND_HEIGHT, false, true);
+    }
+
+    /**
+     * Starts decoding every image the game uses on a background thread. Only
+     * the first call does anything
+     */
+    public static void preload()
+    {
+        if(!PRELOADING.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        Thread loader = new Thread(() ->
+        {
+            for(String path : BACKGROUNDS)
+            {
+                getBackground(path);
+            }
+            for(String path : SHIP_ICONS)
+            {
+                getShipIcon(path);
+            }
+        }, "Image preloader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+}
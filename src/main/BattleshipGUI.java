@@ -8,13 +8,13 @@ package main;
 
 import battleship.data.Cell;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundImage;
 import javafx.scene.layout.BackgroundPosition;
@@ -27,8 +27,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.collections.ObservableList;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -37,11 +35,19 @@ import javafx.animation.Timeline;
 import battleship.data.Coord;
 import battleship.data.Player;
 import battleship.data.Ship;
+import battleship.data.ShipView;
+import battleship.data.BoardView;
 import battleship.data.FireResult;
+import battleship.engine.GameEngine;
+import battleship.engine.TournamentRunner;
 
 import battleship.exceptions.*;
 import battleship.gui.BShipButton;
+import battleship.gui.ImageCache;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.scene.control.TextInputDialog;
@@ -59,17 +65,41 @@ Programmer: Steven Siddall
 
  Certain GUI elements are private instance variables of the whole class in order to avoid enormous parameter lists.
 
+ The computer works out its shots on a background thread so the window keeps
+ responding while it thinks. The results are shown back on the FX thread. The
+ board is locked while the computer thinks, and its turn is cancelled if the
+ player leaves the game.
 
  */
 
 public class BattleshipGUI extends Application
 {
-    public static final int MODE_CLASSIC = 0;
-    public static final int MODE_SALVO = 1;
+    public static final int MODE_CLASSIC = GameEngine.MODE_CLASSIC;
+    public static final int MODE_SALVO = GameEngine.MODE_SALVO;
     
     public static final int ORIENTATION_UP = 0;
     public static final int ORIENTATION_RIGHT = 1;
     
+    /**number of computer vs computer games played in test mode*/
+    private static final int TEST_MODE_GAMES = 10000;
+
+    /**most time the computer spends choosing each shot, in milliseconds*/
+    private static final long CPU_TIME_BUDGET = 250;
+
+    /**works out the computer's shots off the FX thread*/
+    private final ExecutorService cpuExecutor = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "Computer turn");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**the game being shown. Computer turns that finish for any other game are ignored*/
+    private GameEngine activeGame = null;
+
+    /**the computer shot being worked out in the background. null if there isn't one*/
+    private Future<?> cpuTurn = null;
+    
     private Ship shipToMove = null; //used for moving ships during placement
     private int currentOrientation = 0;
     private BShipButton currentButton = null;
@@ -106,6 +136,9 @@ public class BattleshipGUI extends Application
     
     public void loadMainMenu(Stage primaryStage)
     {
+        //decode the game's images in the background while the player is in the menu
+        ImageCache.preload();
+
         //***** Main Menu Components *****//
         Button classicModeBtn = new Button();
         Button salvoModeBtn = new Button();
@@ -125,6 +158,23 @@ public class BattleshipGUI extends Application
         testModeBtn.setOnAction((ActionEvent event) ->
         {
             System.out.println("Test mode selected");
+
+            //play the computer against itself off the FX thread and print the results
+            Thread tournament = new Thread(() ->
+            {
+                try
+                {
+                    TournamentRunner runner = new TournamentRunner(Player.TARGETING_HEURISTIC,
+                                                                   Player.TARGETING_DENSITY, MODE_CLASSIC);
+                    System.out.println(runner.run(TEST_MODE_GAMES));
+                }
+                catch(BattleshipException | InterruptedException e)
+                {
+                    System.out.println("Test mode tournament failed: " + e.getMessage());
+                }
+            });
+            tournament.setDaemon(true);
+            tournament.start();
         });
         
         exitBtn.setOnAction((ActionEvent event) ->
@@ -138,7 +188,7 @@ public class BattleshipGUI extends Application
         mainMenuGrid.setHgap(10);
         mainMenuGrid.setPadding(new Insets(20,20,150,20));
         
-        BackgroundImage myBI= new BackgroundImage(new Image("/imgs/menu_image.jpg",1250,750,false,true),
+        BackgroundImage myBI= new BackgroundImage(ImageCache.getBackground("/imgs/menu_image.jpg"),
         BackgroundRepeat.REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.DEFAULT,
           BackgroundSize.DEFAULT);
         mainMenuGrid.setBackground(new Background(myBI));
@@ -181,6 +231,8 @@ public class BattleshipGUI extends Application
     public void loadShipPlacementScreen(Stage primaryStage, String defaultName, int gameMode)
     {
         Player human = new Player(defaultName);
+        int width = human.getBoardWidth();
+        int height = human.getBoardHeight();
         
         
         //***** Classic Mode Components *****//
@@ -196,7 +248,7 @@ public class BattleshipGUI extends Application
         Button returnToMenuBtn = new Button();
         Button refreshBtn = new Button();
         Button beginGameBtn = new Button();
-        Button[][] buttonGrid = new Button[10][10];
+        Button[][] buttonGrid = new Button[width][height];
         
         Label titleLabel = new Label("Place Your Ships");
         titleLabel.setFont(Font.font(titleLabel.getFont().getName(), FontWeight.NORMAL, 40));
@@ -229,19 +281,22 @@ public class BattleshipGUI extends Application
         beginGameBtn.setDisable(true);
         
         //label axes of grid
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < height; i++)
         {
             char rowChar = (char) (i+65);
             Text yLabel = new Text(Character.toString(rowChar));
             yLabel.setFont(Font.font(yLabel.getFont().getName(), FontWeight.NORMAL, 20));
+            
+            shipPlacementGrid.add(yLabel, 0, i+1);
+            shipPlacementGrid.setMargin(yLabel,new Insets(0,5,0,0));
+        }
+        for(int i = 0; i < width; i++)
+        {
             Text xLabel = new Text(Integer.toString(i+1));
             xLabel.setFont(Font.font(xLabel.getFont().getName(), FontWeight.NORMAL, 20));
             
-            shipPlacementGrid.add(yLabel, 0, i+1);
             shipPlacementGrid.add(xLabel, i+1, 0);
-            
-            shipPlacementGrid.setMargin(yLabel,new Insets(0,5,0,0));
-            if(i != 9)
+            if(i < 9) //single digit labels
             {
                 shipPlacementGrid.setMargin(xLabel,new Insets(0,0,0,18));
             }
@@ -252,15 +307,15 @@ public class BattleshipGUI extends Application
         }
         
         //place buttons
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
-            for(int x = 0; x < 10; x++)
+            for(int x = 0; x < width; x++)
             {
                 Coord thisCoord = null;
             
                 try
                 {
-                    thisCoord = new Coord(x,y);
+                    thisCoord = Coord.valueOf(x, y);
                 }
                 catch(BattleshipException e)
                 {
@@ -292,36 +347,18 @@ public class BattleshipGUI extends Application
                         if(shipToMove != null)
                         {
                             beginGameBtn.setDisable(true);
-                            Cell[] cells = shipToMove.getCells();
                             //remove current ship placement
                             for(int i = 0; i < shipToMove.getSize(); i++)
                             {
-                                buttonGrid[cells[i].getCoords().getX()]
-                                          [cells[i].getCoords().getY()].
+                                buttonGrid[shipToMove.getCellX(i)]
+                                          [shipToMove.getCellY(i)].
                                           setStyle(new Button().getStyle());
                             }
                             redrawHypothetical(buttonGrid);
                             
                             try
                             {
-                                 switch(shipToMove.getName())
-                                {
-                                    case "Carrier":
-                                        human.initializeCarrier(null);
-                                        break;
-                                    case "Battleship":
-                                        human.initializeBattleship(null);
-                                        break;
-                                    case "Cruiser":
-                                        human.initializeCruiser(null);
-                                        break;
-                                    case "Submarine":
-                                        human.initializeSubmarine(null);
-                                        break;
-                                    case "Patrol Boat":
-                                        human.initializePatrolBoat(null);
-                                        break;
-                                }
+                                human.initializeShip(human.findShip(shipToMove.getName()), null);
                             }
                             catch(BattleshipException ex)
                             {
@@ -365,7 +402,7 @@ public class BattleshipGUI extends Application
                             }
                             else if(currentOrientation == ORIENTATION_RIGHT)
                             {
-                                if(thisBtn.getCoords().getX() + shipToMove.getSize() > 10)
+                                if(thisBtn.getCoords().getX() + shipToMove.getSize() > width)
                                 {
                                     System.out.println("Placement failed: out of bounds");
                                     return; //we are out of bounds
@@ -390,24 +427,7 @@ public class BattleshipGUI extends Application
                             
                             try
                             {
-                                switch(shipToMove.getName())
-                                {
-                                    case "Carrier":
-                                        human.initializeCarrier(newShipCells);
-                                        break;
-                                    case "Battleship":
-                                        human.initializeBattleship(newShipCells);
-                                        break;
-                                    case "Cruiser":
-                                        human.initializeCruiser(newShipCells);
-                                        break;
-                                    case "Submarine":
-                                        human.initializeSubmarine(newShipCells);
-                                        break;
-                                    case "Patrol Boat":
-                                        human.initializePatrolBoat(newShipCells);
-                                        break;
-                                }
+                                human.initializeShip(human.findShip(shipToMove.getName()), newShipCells);
                             }
                             catch(InvalidShipSizeException ex)
                             {
@@ -422,13 +442,12 @@ public class BattleshipGUI extends Application
                             }
                             
                             //update visuals
-                            Ship[] ships = human.getAllShips();
-                            for(int i = 0; i < ships.length; i++)
+                            for(int i = 0; i < human.getFleet().getNumShips(); i++)
                             {
-                                for(int j = 0; j < ships[i].getSize(); j++)
+                                ShipView ship = human.getShipView(i);
+                                for(int j = 0; ship != null && j < ship.getSize(); j++)
                                 {
-                                    buttonGrid[ships[i].getCells()[j].getXCoord()]
-                                              [ships[i].getCells()[j].getYCoord()].
+                                    buttonGrid[ship.getCellX(j)][ship.getCellY(j)].
                                               setStyle("-fx-background-color: #00bf09");
                                 }
                             }
@@ -449,37 +468,29 @@ public class BattleshipGUI extends Application
         
         refreshBtn.setOnAction((ActionEvent event) ->
         {
+            if(!human.generateRandomShipPlacement())
+            {
+                System.out.println("Placement failed: ships could not be placed randomly");
+                return; //the ships are left where they were
+            }
             beginGameBtn.setDisable(false);
-            human.generateRandomShipPlacement();
-            Ship[] ships = human.getAllShips();
             
             //first reset all buttons to default color
-            ObservableList<Node> children = shipPlacementGrid.getChildren();
-            for(Node thisNode : children)
+            for(int y = 0; y < height; y++)
             {
-                if(GridPane.getRowIndex(thisNode) > 0 && GridPane.getColumnIndex(thisNode)  > 0)
+                for(int x = 0; x < width; x++)
                 {
-                    BShipButton button = (BShipButton) thisNode;
-                    button.setStyle(new Button().getStyle());
+                    buttonGrid[x][y].setStyle("");
                 }
             }
             
             //color buttons with ships placed
-            for(int i = 0; i < ships.length; i++)
+            for(int i = 0; i < human.getFleet().getNumShips(); i++)
             {
-                for(int j = 0; j < ships[i].getSize(); j++)
+                ShipView ship = human.getShipView(i);
+                for(int j = 0; ship != null && j < ship.getSize(); j++)
                 {
-                    int x = ships[i].getCell(j).getXCoord() + 1;
-                    int y = ships[i].getCell(j).getYCoord() + 1;
-                    children = shipPlacementGrid.getChildren();
-                    for(Node thisNode : children)
-                    {
-                        if(GridPane.getRowIndex(thisNode)  == y && GridPane.getColumnIndex(thisNode) == x)
-                        {
-                            BShipButton button = (BShipButton) thisNode;
-                            button.setStyle("-fx-background-color: #00bf09");
-                        }
-                    }
+                    buttonGrid[ship.getCellX(j)][ship.getCellY(j)].setStyle("-fx-background-color: #00bf09");
                 }
             }
         });
@@ -506,7 +517,7 @@ public class BattleshipGUI extends Application
         shipPlacementBorder.setBottom(bottomButtons);
         shipPlacementBorder.setRight(tipPanel);
         
-        BackgroundImage myBI= new BackgroundImage(new Image("/imgs/ocean1.jpg",1250,750,false,true),
+        BackgroundImage myBI= new BackgroundImage(ImageCache.getBackground("/imgs/ocean1.jpg"),
         BackgroundRepeat.REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.DEFAULT,
           BackgroundSize.DEFAULT);
         shipPlacementBorder.setBackground(new Background(myBI));
@@ -567,15 +578,23 @@ public class BattleshipGUI extends Application
     public void loadGame(Stage primaryStage, Player human, int gameMode)
     {
         Player cpu = new Player("Computer");
-        cpu.generateRandomShipPlacement();
-        cpu.replenishShots(gameMode);
+        int width = human.getBoardWidth();
+        int height = human.getBoardHeight();
+        if(!cpu.generateRandomShipPlacement()) //should never happen since the fleet fits on the board
+        {
+            System.out.println("Error placing computer's ships. Exiting");
+            System.exit(1);
+        }
         
-        human.replenishShots(gameMode);
+        //the engine takes care of turns, replenishing shots, and checking for a winner
+        GameEngine engine = new GameEngine(human, cpu, gameMode);
+        activeGame = engine;
         
-        Coord targetCoords = new Coord();
+        //the target selected by the human. Stored in an array so the button handlers can change it
+        Coord[] targetCoords = {Coord.ORIGIN};
         BShipButton previousTargetStyle = new BShipButton();
-        BShipButton[][] playerButtons = new BShipButton[10][10];
-        BShipButton[][] cpuButtons = new BShipButton[10][10];
+        BShipButton[][] playerButtons = new BShipButton[width][height];
+        BShipButton[][] cpuButtons = new BShipButton[width][height];
         
         //***** Classic Game UI Componenets *****//
         
@@ -631,30 +650,30 @@ public class BattleshipGUI extends Application
         eventLabel = new Label(human.getName() + "'s turn!");
         
         //images of ships for labels
-        ImageView playerCarrierImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_carrier_right_green.png" ), 250, 50, true, true));
+        ImageView playerCarrierImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_carrier_right_green.png"));
         playerCarrierLabel.setGraphic(playerCarrierImg);
-        ImageView playerBattleshipImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_battleship_right_green.png" ), 250, 50, true, true));
+        ImageView playerBattleshipImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_battleship_right_green.png"));
         playerBattleshipLabel.setGraphic(playerBattleshipImg);
-        ImageView playerCruiserImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_cruiser_right_green.png" ), 250, 50, true, true));
+        ImageView playerCruiserImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_cruiser_right_green.png"));
         playerCruiserLabel.setGraphic(playerCruiserImg);
-        ImageView playerSubmarineImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_submarine_right_green.png" ), 250, 50, true, true));
+        ImageView playerSubmarineImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_submarine_right_green.png"));
         playerSubmarineLabel.setGraphic(playerSubmarineImg);
-        ImageView playerPatrolBoatImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_patrolBoat_right_green.png" ), 250, 50, true, true));
+        ImageView playerPatrolBoatImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_patrolBoat_right_green.png"));
         playerPatrolBoatLabel.setGraphic(playerPatrolBoatImg);
         
-        ImageView cpuCarrierImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_carrier_right_green.png" ), 250, 50, true, true));
+        ImageView cpuCarrierImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_carrier_right_green.png"));
         cpuCarrierImg.setScaleX(-1);
         cpuCarrierLabel.setGraphic(cpuCarrierImg);
-        ImageView cpuBattleshipImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_battleship_right_green.png" ), 250, 50, true, true));
+        ImageView cpuBattleshipImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_battleship_right_green.png"));
         cpuBattleshipImg.setScaleX(-1);
         cpuBattleshipLabel.setGraphic(cpuBattleshipImg);
-        ImageView cpuCruiserImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_cruiser_right_green.png" ), 250, 50, true, true));
+        ImageView cpuCruiserImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_cruiser_right_green.png"));
         cpuCruiserImg.setScaleX(-1);
         cpuCruiserLabel.setGraphic(cpuCruiserImg);
-        ImageView cpuSubmarineImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_submarine_right_green.png" ), 250, 50, true, true));
+        ImageView cpuSubmarineImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_submarine_right_green.png"));
         cpuSubmarineImg.setScaleX(-1);
         cpuSubmarineLabel.setGraphic(cpuSubmarineImg);
-        ImageView cpuPatrolBoatImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_patrolBoat_right_green.png" ), 250, 50, true, true));
+        ImageView cpuPatrolBoatImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_patrolBoat_right_green.png"));
         cpuPatrolBoatImg.setScaleX(-1);
         cpuPatrolBoatLabel.setGraphic(cpuPatrolBoatImg);
         
@@ -742,28 +761,34 @@ public class BattleshipGUI extends Application
         
         
         //label axes of grids
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < height; i++)
         {
             char rowChar = (char) (i+65);
             Text yLabel = new Text(Character.toString(rowChar));
             yLabel.setFont(Font.font(yLabel.getFont().getName(), FontWeight.NORMAL, 20));
-            Text xLabel = new Text(Integer.toString(i+1));
-            xLabel.setFont(Font.font(xLabel.getFont().getName(), FontWeight.NORMAL, 20));
             
             //have to make copies of labels so they show up on both boards
-            Text xLabelCopy = new Text(xLabel.getText());
             Text yLabelCopy = new Text(yLabel.getText());
-            xLabelCopy.setFont(xLabel.getFont());
             yLabelCopy.setFont(yLabel.getFont());
             
             playerGrid.add(yLabel, 0, i+1);
-            playerGrid.add(xLabel, i+1, 0);
             cpuGrid.add(yLabelCopy, 0, i+1);
-            cpuGrid.add(xLabelCopy, i+1, 0);
             
             playerGrid.setMargin(yLabel,new Insets(0,5,0,0));
             cpuGrid.setMargin(yLabelCopy,new Insets(0,5,0,0));
-            if(i != 9)
+        }
+        for(int i = 0; i < width; i++)
+        {
+            Text xLabel = new Text(Integer.toString(i+1));
+            xLabel.setFont(Font.font(xLabel.getFont().getName(), FontWeight.NORMAL, 20));
+            
+            Text xLabelCopy = new Text(xLabel.getText());
+            xLabelCopy.setFont(xLabel.getFont());
+            
+            playerGrid.add(xLabel, i+1, 0);
+            cpuGrid.add(xLabelCopy, i+1, 0);
+            
+            if(i < 9) //single digit labels
             {
                 playerGrid.setMargin(xLabel,new Insets(0,0,0,18));
                 cpuGrid.setMargin(xLabelCopy,new Insets(0,0,0,18));
@@ -776,15 +801,15 @@ public class BattleshipGUI extends Application
         }
         
         //place buttons on both grids
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < height; y++)
         {
-            for(int x = 0; x < 10; x++)
+            for(int x = 0; x < width; x++)
             {
                 Coord thisCoord = null;
             
                 try
                 {
-                    thisCoord = new Coord(x,y);
+                    thisCoord = Coord.valueOf(x, y);
                 }
                 catch(BattleshipException e)
                 {
@@ -807,62 +832,48 @@ public class BattleshipGUI extends Application
                 
                 cpuBtn.setOnAction((ActionEvent event) ->
                 {
-                    try
-                    {
-                        fireBtn.setDisable(false);
-                        //reset style of current target
-                        cpuButtons[targetCoords.getX()][
-                                targetCoords.getY()].setStyle(
-                                        previousTargetStyle.getStyle());
-                        
-                        //store selcted coords
-                        targetCoords.setX(cpuBtn.getCoords().getX());
-                        targetCoords.setY(cpuBtn.getCoords().getY());
-                        
-                        previousTargetStyle.setStyle(cpuBtn.getStyle());
-                        //set color of new target
-                        cpuBtn.setStyle("-fx-background-color: #ffff00");
-                        
-                    }
-                    catch(BattleshipException e)
-                    {
-                        System.out.println("Error setting target coordinates");
-                        System.exit(1);
-                    }
+                    fireBtn.setDisable(false);
+                    //reset style of current target
+                    cpuButtons[targetCoords[0].getX()][
+                            targetCoords[0].getY()].setStyle(
+                                    previousTargetStyle.getStyle());
+                    
+                    //store selcted coords
+                    targetCoords[0] = cpuBtn.getCoords();
+                    
+                    previousTargetStyle.setStyle(cpuBtn.getStyle());
+                    //set color of new target
+                    cpuBtn.setStyle("-fx-background-color: #ffff00");
                 });
             }
         }
         
-        Ship[] ships = human.getAllShips();
-        ObservableList<Node> children = playerGrid.getChildren();
         //color buttons with ships placed
-        for(int i = 0; i < ships.length; i++)
+        for(int y = 0; y < height; y++)
         {
-            for(int j = 0; j < ships[i].getSize(); j++)
+            for(int x = 0; x < width; x++)
             {
-                int x = ships[i].getCell(j).getXCoord() + 1;
-                int y = ships[i].getCell(j).getYCoord() + 1;
-                children = playerGrid.getChildren();
-                for(Node thisNode : children)
+                if(human.getShipAt(y*width + x) != null)
                 {
-                    if(GridPane.getRowIndex(thisNode)  == y && GridPane.getColumnIndex(thisNode) == x)
-                    {
-                        BShipButton button = (BShipButton) thisNode;
-                        button.setStyle("-fx-background-color: #00bf09");
-                    }
+                    playerButtons[x][y].setStyle("-fx-background-color: #00bf09");
                 }
             }
         }
         
+        //a cell the human has shot at can't be targeted again
+        human.addBoardListener(change -> cpuButtons[change.getX()][change.getY()].setDisable(true));
+        
         //TODO: ask user if they're sure
         returnToMenuBtn.setOnAction((ActionEvent event) ->
         {
+            cancelCPUTurn();
             loadMainMenu(primaryStage);
         });
         
         //TODO: ask user if they're sure
         restartBtn.setOnAction((ActionEvent event) ->
         {
+            cancelCPUTurn();
             loadShipPlacementScreen(primaryStage, human.getName(), gameMode);
         });
         
@@ -893,33 +904,35 @@ public class BattleshipGUI extends Application
             FireResult result = null;
             try
             {
-                result = cpu.fireAt(targetCoords, human);
+                result = engine.fire(targetCoords[0]);
             }
             catch(BattleshipException e)
             {
                 System.out.println("Error while generating fire result.");
                 System.exit(1);
             }
-            BShipButton humanTargetBtn = cpuButtons[targetCoords.getX()][targetCoords.getY()];
+            //the engine passes the turn to the cpu once the human is out of shots
+            boolean humanTurnOver = engine.getCurrentPlayer() == cpu;
+            BShipButton humanTargetBtn = cpuButtons[targetCoords[0].getX()][targetCoords[0].getY()];
             String newStyle = "";
             //report results and update UI
             switch (result.getResult())
             {
                 case FireResult.MISS:
                     eventLabel.setText(human.getName() + " fired at " +
-                            targetCoords.bShipCoords() + " and missed!");
+                            targetCoords[0].bShipCoords() + " and missed!");
                     newStyle = "-fx-background-image: url(\"/imgs/icon_miss.jpg\")";
                     previousTargetStyle.setStyle("-fx-background-image: url(\"/imgs/icon_miss.jpg\")");
                     break;
                 case FireResult.HIT:
                     eventLabel.setText(human.getName() + " fired at " + 
-                            targetCoords.bShipCoords() + " and hit something!");
+                            targetCoords[0].bShipCoords() + " and hit something!");
                     newStyle = "-fx-background-image: url(\"/imgs/icon_hit.jpg\")";
                     previousTargetStyle.setStyle("-fx-background-image: url(\"/imgs/icon_hit.jpg\")");
                     break;
                 case FireResult.SINK:
                     eventLabel.setText(human.getName() + " fired at " +
-                            targetCoords.bShipCoords() + " and sunk " +
+                            targetCoords[0].bShipCoords() + " and sunk " +
                             cpu.getName() + "'s " + 
                             result.getSunkShip().getName() + "!");
                     previousTargetStyle.setStyle("-fx-background-color: #000000;-fx-background-image: url(\"/imgs/icon_sink.jpg\")");
@@ -928,27 +941,27 @@ public class BattleshipGUI extends Application
                     switch (ship.getName())
                     {
                         case "Carrier":
-                            ImageView playerCarrierImg1 = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_carrier_right_red.png" ), 250, 50, true, true));
+                            ImageView playerCarrierImg1 = new ImageView(ImageCache.getShipIcon("/imgs/icon_carrier_right_red.png"));
                             playerCarrierImg1.setScaleX(-1);
                             cpuCarrierLabel.setGraphic(playerCarrierImg1);
                             break;
                         case "Battleship":
-                            ImageView playerBattleshipImg1 = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_battleship_right_red.png" ), 250, 50, true, true));
+                            ImageView playerBattleshipImg1 = new ImageView(ImageCache.getShipIcon("/imgs/icon_battleship_right_red.png"));
                             playerBattleshipImg1.setScaleX(-1);
                             cpuBattleshipLabel.setGraphic(playerBattleshipImg1);
                             break;
                         case "Cruiser":
-                            ImageView playerCruiserImg1 = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_cruiser_right_red.png" ), 250, 50, true, true));
+                            ImageView playerCruiserImg1 = new ImageView(ImageCache.getShipIcon("/imgs/icon_cruiser_right_red.png"));
                             playerCruiserImg1.setScaleX(-1);
                             cpuCruiserLabel.setGraphic(playerCruiserImg1);
                             break;
                         case "Submarine":
-                            ImageView playerSubmarineImg1 = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_submarine_right_red.png" ), 250, 50, true, true));
+                            ImageView playerSubmarineImg1 = new ImageView(ImageCache.getShipIcon("/imgs/icon_submarine_right_red.png"));
                             playerSubmarineImg1.setScaleX(-1);
                             cpuSubmarineLabel.setGraphic(playerSubmarineImg1);
                             break;
                         case "Patrol Boat":
-                            ImageView playerPatrolBoatImg1 = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_patrolBoat_right_red.png" ), 250, 50, true, true));
+                            ImageView playerPatrolBoatImg1 = new ImageView(ImageCache.getShipIcon("/imgs/icon_patrolBoat_right_red.png"));
                             playerPatrolBoatImg1.setScaleX(-1);
                             cpuPatrolBoatLabel.setGraphic(playerPatrolBoatImg1);
                             break;
@@ -958,7 +971,6 @@ public class BattleshipGUI extends Application
                     System.out.println("Error in human fire result");
                     System.exit(1);
             }
-            cpuButtons[targetCoords.getX()][targetCoords.getY()].setDisable(true);
             //animate shot location
             if(result.getResult() == FireResult.SINK)
             {
@@ -975,9 +987,9 @@ public class BattleshipGUI extends Application
                 {
                     timelines[i] = new Timeline();
                     
-                    if(i == coords.length - 1 && human.getNumShots() == 0 && !checkIfHumanWon(primaryStage, cpu, human, cpuButtons, playerButtons))
+                    if(i == coords.length - 1 && humanTurnOver)
                     {
-                        timelines[i].setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, gameMode));
+                        timelines[i].setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, engine));
                     }
                     
                     BShipButton sunkShipBtn = cpuButtons[coords[i].getX()][coords[i].getY()];
@@ -1014,9 +1026,9 @@ public class BattleshipGUI extends Application
             {
                 Timeline timeline = new Timeline();
                 
-                if(human.getNumShots() == 0)
+                if(humanTurnOver)
                 {
-                    timeline.setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, gameMode));
+                    timeline.setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, engine));
                 }
                 
                 KeyValue keyVal1 = new KeyValue(humanTargetBtn.styleProperty(), newStyle);
@@ -1040,18 +1052,15 @@ public class BattleshipGUI extends Application
                 timeline.getKeyFrames().addAll(keyFrame1, keyFrame2, keyFrame3, keyFrame4, keyFrame5, keyFrame6);
                 timeline.play();
             }
-            if(human.getNumShots() <= 0)
+            if(humanTurnOver)
             {
-                human.replenishShots(gameMode);
-                cpu.replenishShots(gameMode);
-                
                 //prevent human from playing before cpu has their turn
                 disableButtons(cpuButtons);
             }
         });
         
         
-        BackgroundImage myBI= new BackgroundImage(new Image("/imgs/ocean1.jpg",1250,750,false,true),
+        BackgroundImage myBI= new BackgroundImage(ImageCache.getBackground("/imgs/ocean1.jpg"),
         BackgroundRepeat.REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.DEFAULT,
           BackgroundSize.DEFAULT);
         mainBorder.setBackground(new Background(myBI));
@@ -1086,29 +1095,76 @@ public class BattleshipGUI extends Application
     }
     
     //we need to process the cpu turn separately because of javafx timeline animations
-    public void processCPUTurn(Stage primaryStage, Player cpu, Player human, BShipButton[][] cpuButtons, BShipButton[][] playerButtons, int gameMode)
+    public void processCPUTurn(Stage primaryStage, Player cpu, Player human, BShipButton[][] cpuButtons, BShipButton[][] playerButtons, GameEngine engine)
     {
+        //the player left this game while its animations were still playing
+        if(engine != activeGame)
+        {
+            return;
+        }
+
         System.out.println("CPU:\n");
         System.out.println(cpu.boardToStringStates());
         System.out.println("\n\nHUMAN:\n");
         System.out.println(human.boardToStringStates());
         
-        
-        //process computer's turn and report results in UI
-        cpu.updateRecommendation();
-        Coord cpuTarget = cpu.getRecommendation();
-        FireResult result = null;
-        
-        //fire at cpu recommendation
-        try
+        //lock the board while the computer thinks
+        disableButtons(cpuButtons);
+        eventLabel.setText(cpu.getName() + " is thinking...");
+
+        //choose and fire the computer's shot in the background, then show it on the FX thread
+        cpuTurn = cpuExecutor.submit(() ->
         {
-            result = human.fireAt(cpuTarget, cpu);
-        }
-        catch(BattleshipException e)
+            cpu.updateRecommendation(CPU_TIME_BUDGET);
+            if(Thread.currentThread().isInterrupted())
+            {
+                return;
+            }
+
+            FireResult result = null;
+            try
+            {
+                result = engine.fire(cpu.getRecommendation());
+            }
+            catch(BattleshipException e)
+            {
+                System.out.println("Error generating computer fire result");
+                System.exit(1);
+            }
+
+            FireResult cpuResult = result;
+            Platform.runLater(() ->
+            {
+                if(engine == activeGame)
+                {
+                    cpuTurn = null;
+                    showCPUShot(primaryStage, cpu, human, cpuButtons, playerButtons, engine, cpuResult);
+                }
+            });
+        });
+    }
+
+    /**
+     * Stops the computer's turn that is being worked out, if there is one, and
+     * ignores any results from the game that is being left
+     */
+    private void cancelCPUTurn()
+    {
+        activeGame = null;
+        if(cpuTurn != null)
         {
-            System.out.println("Error generating computer fire result");
-            System.exit(1);
+            cpuTurn.cancel(true);
+            cpuTurn = null;
         }
+    }
+
+    //shows the result of a computer shot. Runs on the FX thread once the shot has been fired
+    private void showCPUShot(Stage primaryStage, Player cpu, Player human, BShipButton[][] cpuButtons, BShipButton[][] playerButtons, GameEngine engine, FireResult result)
+    {
+        Coord cpuTarget = result.getTarget();
+        
+        //the engine keeps the turn with the cpu until it is out of shots or has won
+        boolean cpuHasShotsLeft = engine.getCurrentPlayer() == cpu && !engine.isGameOver();
 
         //show player's board
         cpuGrid.setVisible(false);
@@ -1150,27 +1206,27 @@ public class BattleshipGUI extends Application
                 switch(ship.getName())
                 {
                     case "Carrier":
-                        ImageView cpuCarrierImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_carrier_right_red.png" ), 250, 50, true, true));
+                        ImageView cpuCarrierImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_carrier_right_red.png"));
                         playerCarrierLabel.setGraphic(cpuCarrierImg);
                         break;
 
                     case "Battleship":
-                        ImageView cpuBattleshipImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_battleship_right_red.png" ), 250, 50, true, true));
+                        ImageView cpuBattleshipImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_battleship_right_red.png"));
                         playerBattleshipLabel.setGraphic(cpuBattleshipImg);
                         break;
 
                     case "Cruiser":
-                        ImageView cpuCruiserImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_cruiser_right_red.png" ), 250, 50, true, true));
+                        ImageView cpuCruiserImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_cruiser_right_red.png"));
                         playerCruiserLabel.setGraphic(cpuCruiserImg);
                         break;
 
                     case "Submarine":
-                        ImageView cpuSubmarineImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_submarine_right_red.png" ), 250, 50, true, true));
+                        ImageView cpuSubmarineImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_submarine_right_red.png"));
                         playerSubmarineLabel.setGraphic(cpuSubmarineImg);
                         break;
 
                     case "Patrol Boat":
-                        ImageView cpuPatrolBoatImg = new ImageView(new Image(getClass().getResourceAsStream("/imgs/icon_patrolBoat_right_red.png" ), 250, 50, true, true));
+                        ImageView cpuPatrolBoatImg = new ImageView(ImageCache.getShipIcon("/imgs/icon_patrolBoat_right_red.png"));
                         playerPatrolBoatLabel.setGraphic(cpuPatrolBoatImg);
                         break;
                 }
@@ -1195,9 +1251,9 @@ public class BattleshipGUI extends Application
             for(int i = 0; i < coords.length; i++)
             {
                 timelines[i] = new Timeline();
-                if(i == coords.length - 1 && cpu.getNumShots() > 0 && !checkIfCPUWon(primaryStage, cpu, human, cpuButtons, playerButtons))
+                if(i == coords.length - 1 && cpuHasShotsLeft)
                 {
-                    timelines[i].setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, gameMode));
+                    timelines[i].setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, engine));
                 }
                 else if(i == coords.length - 1)
                 {
@@ -1239,9 +1295,9 @@ public class BattleshipGUI extends Application
         {
             Timeline timeline = new Timeline();
             
-            if(cpu.getNumShots() > 0)
+            if(cpuHasShotsLeft)
             {
-                timeline.setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, gameMode));
+                timeline.setOnFinished(e -> processCPUTurn(primaryStage, cpu, human, cpuButtons, playerButtons, engine));
             }
             
             
@@ -1267,11 +1323,8 @@ public class BattleshipGUI extends Application
             timeline.play();
         }
         
-        if(cpu.getNumShots() <= 0)
+        if(engine.getCurrentPlayer() == human)
         {
-            cpu.replenishShots(gameMode);
-            human.replenishShots(gameMode);
-            
             //allow human to select buttons again
             enableUntouchedButtons(cpuButtons, human);
         }
@@ -1300,35 +1353,20 @@ public class BattleshipGUI extends Application
             disableButtons(humanButtons);
             
             //show all cpu ships that weren't sunk
-            Ship[] ships = cpu.getAllShips();
-            for(int i = 0; i < ships.length; i++)
+            BoardView humanShots = human.getBoardView();
+            for(int i = 0; i < cpu.getFleet().getNumShips(); i++)
             {
-                if(ships[i].isAfloat())
+                ShipView ship = cpu.getShipView(i);
+                if(ship != null && ship.isAfloat())
                 {
-                    for(int j = 0; j < ships[i].getSize(); j++)
+                    for(int j = 0; j < ship.getSize(); j++)
                     {
-                        Coord coords = ships[i].getCell(j).getCoords();
-                        int x = coords.getX();
-                        int y = coords.getY();
-                        
-                        
-                        try
-                        {
-                            //System.out.println("i=" + i);
-                            //System.out.println("j=" + j);
-                            //System.out.println("cell via ships:" + ships[i].getCell(j));
-                            //System.out.println("cell via board:" + human.getBoard().getCell(x, y));
-                            //System.out.println(cpu.getBoard().getCell(x,y).getState());
+                        int x = ship.getCellX(j);
+                        int y = ship.getCellY(j);
                         
-                            if(human.getBoard().getCell(x,y).getState() == Cell.UNTOUCHED)
-                            {
-                                cpuButtons[x][y].setStyle("-fx-background-color: #ff0019");
-                            }
-                        }
-                        catch(BattleshipException e)
+                        if(humanShots.getCellState(x, y) == Cell.UNTOUCHED)
                         {
-                            System.out.println("Error revealing cpu ships");
-                            System.exit(1);
+                            cpuButtons[x][y].setStyle("-fx-background-color: #ff0019");
                         }
                         
                     }
@@ -1341,9 +1379,9 @@ public class BattleshipGUI extends Application
     
     private void disableButtons(Button[][] buttons)
     {
-        for(int i = 0; i < 10; i++)
+        for(int i = 0; i < buttons.length; i++)
         {
-            for(int j = 0; j < 10; j++)
+            for(int j = 0; j < buttons[i].length; j++)
             {
                 buttons[i][j].setDisable(true);
             }
@@ -1352,22 +1390,14 @@ public class BattleshipGUI extends Application
     
     private void enableUntouchedButtons(Button[][] buttons, Player player)
     {
-        for(int y = 0; y < 10; y++)
+        for(int y = 0; y < player.getBoardHeight(); y++)
         {
-            for(int x = 0; x < 10; x++)
+            for(int x = 0; x < player.getBoardWidth(); x++)
             {
-                try
-                {
-                    if(player.getBoard().getCell(x, y).getState() == Cell.UNTOUCHED)
-                    {
-                        buttons[x][y].setDisable(false);
-                    }
-                }
-                catch(BattleshipException e)
+                if(player.getBoardCellState(x, y) == Cell.UNTOUCHED)
                 {
-                    System.out.println("Error re-enabling player buttons");
+                    buttons[x][y].setDisable(false);
                 }
-                
             }
         }
     }
@@ -1376,22 +1406,20 @@ public class BattleshipGUI extends Application
     {
         if(shipToMove != null)
         {
-            //remove previous hypothetical ship placement
-            for(int j = 0; j < 10; j++)
+            //remove previous hypothetical ship placement and color the cells with ships
+            int width = human.getBoardWidth();
+            for(int y = 0; y < human.getBoardHeight(); y++)
             {
-                for(int i = 0; i < 10; i++)
+                for(int x = 0; x < width; x++)
                 {
-                    buttonGrid[i][j].setStyle(new Button().getStyle());
-                }
-            }
-            Ship[] ships = human.getAllShips();
-            for(int i = 0; i < ships.length; i++)
-            {
-                for(int j = 0; j < ships[i].getSize(); j++)
-                {
-                    buttonGrid[ships[i].getCells()[j].getXCoord()]
-                              [ships[i].getCells()[j].getYCoord()].
-                              setStyle("-fx-background-color: #00bf09");
+                    if(human.getShipAt(y*width + x) != null)
+                    {
+                        buttonGrid[x][y].setStyle("-fx-background-color: #00bf09");
+                    }
+                    else
+                    {
+                        buttonGrid[x][y].setStyle("");
+                    }
                 }
             }
         }
@@ -1417,7 +1445,7 @@ public class BattleshipGUI extends Application
             {
                 for(int i = 0; i < shipToMove.getSize(); i++)
                 {
-                    if(currentButton.getCoords().getX() + i < 10)
+                    if(currentButton.getCoords().getX() + i < buttonGrid.length)
                     {
                         buttonGrid[currentButton.getCoords().getX() + i]
                               [currentButton.getCoords().getY()].
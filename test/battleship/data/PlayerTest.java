@@ -0,0 +1,51 @@
+package battleship.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+/**
+Programmer: Steven Siddall
+ @author Steven Siddall
+
+Tests for shots fired between players.
+*/
+public class PlayerTest
+{
+    /**slot of the submarine in the classic fleet. The cruiser has the same length*/
+    private static final int SUBMARINE = 3;
+
+    @Test
+    public void firingAtSunkShipAgainKeepsShipsAfloat() throws Exception
+    {
+        Player target = new Player("Target");
+        Player shooter = new Player("Shooter");
+        target.generateRandomShipPlacement();
+        ShipView submarine = target.getShipView(SUBMARINE);
+        int length = submarine.getSize();
+        int width = target.getBoardWidth();
+
+        for(int i = 0; i < length; i++)
+        {
+            target.fireAt(submarine.getCellY(i)*width + submarine.getCellX(i), shooter);
+        }
+        assertEquals(1, shooter.getOpponentShipsAfloat(length));
+
+        target.fireAt(submarine.getCellY(0)*width + submarine.getCellX(0), shooter);
+        assertEquals(1, shooter.getOpponentShipsAfloat(length));
+    }
+
+    @Test
+    public void fireAtForgetsShotsThatCouldBeUndone() throws Exception
+    {
+        Player target = new Player("Target");
+        Player shooter = new Player("Shooter");
+        target.generateRandomShipPlacement();
+
+        target.applyShot(0, shooter);
+        assertEquals(1, target.getNumUndoShots());
+        target.fireAt(1, shooter);
+        assertEquals(0, target.getNumUndoShots());
+        assertFalse(target.undoShot());
+    }
+}